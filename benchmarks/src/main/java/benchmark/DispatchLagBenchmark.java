@@ -0,0 +1,73 @@
+package benchmark;
+
+import behavior.TaskScheduler;
+import entity.Job;
+import entity.JobHandle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b> Dispatch Lag Benchmark </b>
+ *
+ * <p> With the given number of far future jobs pending, measures the time from scheduling a job that is
+ * due right away until its task runs, i.e. the insert, the dispatcher wakeup and the hand-off together. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/16
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DispatchLagBenchmark {
+
+    private static final long FAR_FUTURE_DELAY = TimeUnit.DAYS.toMillis(1) ;
+    private static final Runnable NO_OP_TASK = () -> {} ;
+
+    @Param({"TRIGGER", "TIMING_WHEEL", "ENHANCED_PRIORITY", "ENHANCED_DELAY_READY", "ENHANCED_DUE_TIME"})
+    public SchedulerEngine engine ;
+
+    @Param({"10000", "100000", "1000000"})
+    public int pendingJobCounter ;
+
+    private TaskScheduler taskScheduler ;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        taskScheduler = engine.createScheduler() ;
+
+        List<Job> pendingJobs = new ArrayList<>(pendingJobCounter) ;
+        for (int i = 0 ; i < pendingJobCounter ; i ++) pendingJobs.add(engine.createJob(NO_OP_TASK, FAR_FUTURE_DELAY + i, 0)) ;
+
+        taskScheduler.setAllToJobQueue(pendingJobs) ;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        taskScheduler.shutdown() ;
+    }
+
+    @Benchmark
+    public void dispatchDueJob() throws InterruptedException {
+
+        CountDownLatch executed = new CountDownLatch(1) ;
+
+        // Due right away once, then it would recur a day later, so the pending job number stays the same
+        Job job = engine.createJob(executed::countDown, FAR_FUTURE_DELAY, 0) ;
+        job.reschedule(0) ;
+
+        JobHandle jobHandle = taskScheduler.setToJobQueue(job) ;
+
+        executed.await() ;
+
+        jobHandle.cancel() ;
+    }
+}
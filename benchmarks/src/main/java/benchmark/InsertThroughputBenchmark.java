@@ -0,0 +1,51 @@
+package benchmark;
+
+import behavior.TaskScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b> setToJobQueue Insert Throughput Benchmark </b>
+ *
+ * <p> Several producer threads insert far future jobs, so nothing is ever dispatched and only the
+ * insert path and its lock contention are measured. A fresh scheduler per iteration keeps the heap size bounded. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/16
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class InsertThroughputBenchmark {
+
+    private static final long FAR_FUTURE_DELAY = TimeUnit.DAYS.toMillis(1) ;
+    private static final Runnable NO_OP_TASK = () -> {} ;
+
+    @Param({"TRIGGER", "TIMING_WHEEL", "ENHANCED_PRIORITY", "ENHANCED_DELAY_READY", "ENHANCED_DUE_TIME"})
+    public SchedulerEngine engine ;
+
+    private TaskScheduler taskScheduler ;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+
+        taskScheduler = engine.createScheduler() ;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+
+        taskScheduler.shutdown() ;
+    }
+
+    @Benchmark
+    public Object insert() {
+
+        return taskScheduler.setToJobQueue(engine.createJob(NO_OP_TASK, FAR_FUTURE_DELAY, 0)) ;
+    }
+}
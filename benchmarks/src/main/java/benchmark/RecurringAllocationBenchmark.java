@@ -0,0 +1,59 @@
+package benchmark;
+
+import behavior.TaskScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <b> Recurring Job Firing Benchmark </b>
+ *
+ * <p> A single zero delay recurring job fires as fast as the engine allows, one operation is one firing.
+ * Run it with {@code -prof gc} to read the allocation per firing from {@code gc.alloc.rate.norm}. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/16
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecurringAllocationBenchmark {
+
+    private static final int FIRINGS_PER_INVOCATION = 1000 ;
+
+    @Param({"TRIGGER", "TIMING_WHEEL", "ENHANCED_PRIORITY", "ENHANCED_DELAY_READY", "ENHANCED_DUE_TIME"})
+    public SchedulerEngine engine ;
+
+    private final AtomicLong firingCounter = new AtomicLong() ;
+    private TaskScheduler taskScheduler ;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        taskScheduler = engine.createScheduler() ;
+        taskScheduler.setToJobQueue(engine.createJob(firingCounter::incrementAndGet, 0, 0)) ;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        taskScheduler.shutdown() ;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FIRINGS_PER_INVOCATION)
+    public long recurringFirings() {
+
+        long target = firingCounter.get() + FIRINGS_PER_INVOCATION ;
+
+        long firings ;
+        while ((firings = firingCounter.get()) < target) LockSupport.parkNanos(1_000) ;
+
+        return firings ;
+    }
+}
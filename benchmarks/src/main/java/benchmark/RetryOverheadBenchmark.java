@@ -0,0 +1,86 @@
+package benchmark;
+
+import behavior.TaskScheduler;
+import entity.Job;
+import entity.JobHandle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b> Retry Overhead Benchmark </b>
+ *
+ * <p> Measures how long a job that always fails takes to go through its first attempt and all of its
+ * retries, which the benchmarked triggers make without backoff, compared with the same number of successful
+ * executions of separate jobs. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/16
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RetryOverheadBenchmark {
+
+    private static final long FAR_FUTURE_DELAY = TimeUnit.DAYS.toMillis(1) ;
+    private static final RuntimeException SIMULATED_FAILURE = new RuntimeException("Simulated failure", null, false, false) {} ;
+
+    @Param({"ENHANCED_PRIORITY", "ENHANCED_DELAY_READY", "ENHANCED_DUE_TIME"})
+    public SchedulerEngine engine ;
+
+    @Param({"3"})
+    public int maxRetryCounter ;
+
+    private TaskScheduler taskScheduler ;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        taskScheduler = engine.createScheduler() ;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        taskScheduler.shutdown() ;
+    }
+
+    @Benchmark
+    public void failingJobWithRetries() throws InterruptedException {
+
+        CountDownLatch attempts = new CountDownLatch(maxRetryCounter + 1) ;
+
+        // A zero delay and a zero retry base delay make every attempt due right away, exhausted retries leave the job failed and unscheduled
+        taskScheduler.setToJobQueue(engine.createJob(() -> {
+
+            attempts.countDown() ;
+
+            throw SIMULATED_FAILURE ;
+        }, 0, maxRetryCounter)) ;
+
+        attempts.await() ;
+    }
+
+    @Benchmark
+    public void successfulJobsBaseline() throws InterruptedException {
+
+        CountDownLatch executions = new CountDownLatch(maxRetryCounter + 1) ;
+        JobHandle[] jobHandles = new JobHandle[maxRetryCounter + 1] ;
+
+        for (int i = 0 ; i <= maxRetryCounter ; i ++) {
+
+            Job job = engine.createJob(executions::countDown, FAR_FUTURE_DELAY, 0) ;
+            job.reschedule(0) ;
+
+            jobHandles[i] = taskScheduler.setToJobQueue(job) ;
+        }
+
+        executions.await() ;
+
+        for (JobHandle jobHandle : jobHandles) jobHandle.cancel() ;
+    }
+}
@@ -0,0 +1,58 @@
+package benchmark;
+
+import Component.EnhancedTrigger;
+import Component.TimingWheelTrigger;
+import Component.Trigger;
+import behavior.TaskScheduler;
+import entity.EnhancedJob;
+import entity.EnhancedTriggerConfig;
+import entity.Job;
+import enumeration.QueueModeEnum;
+
+/**
+ * <b> Benchmarked Scheduler Engine Enumeration </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/16
+ */
+public enum SchedulerEngine {
+
+    TRIGGER,
+    TIMING_WHEEL,
+    ENHANCED_PRIORITY,
+    ENHANCED_DELAY_READY,
+    ENHANCED_DUE_TIME ;
+
+    /**
+     * <p> The enhanced triggers retry without backoff, so the benchmarks measure the retry path rather than the
+     * sleeping between the attempts </p>
+     */
+    public TaskScheduler createScheduler() {
+
+        return switch (this) {
+
+            case TRIGGER -> new Trigger() ;
+            case TIMING_WHEEL -> new TimingWheelTrigger() ;
+            case ENHANCED_PRIORITY -> createEnhancedTrigger(QueueModeEnum.PRIORITY) ;
+            case ENHANCED_DELAY_READY -> createEnhancedTrigger(QueueModeEnum.DELAY_READY) ;
+            case ENHANCED_DUE_TIME -> createEnhancedTrigger(QueueModeEnum.DUE_TIME) ;
+        } ;
+    }
+
+    private static EnhancedTrigger createEnhancedTrigger(QueueModeEnum queueMode) {
+
+        return new EnhancedTrigger(EnhancedTriggerConfig.builder().queueMode(queueMode).retryBaseDelay(0).build()) ;
+    }
+
+    /**
+     * <p> To create the job type the engine expects, the enhanced triggers only accept enhanced jobs </p>
+     */
+    public Job createJob(Runnable task, long delay, int maxRetryCounter) {
+
+        return switch (this) {
+
+            case TRIGGER, TIMING_WHEEL -> new Job(task, delay) ;
+            default -> new EnhancedJob(task, delay, 1, maxRetryCounter) ;
+        } ;
+    }
+}
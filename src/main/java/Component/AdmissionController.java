@@ -0,0 +1,293 @@
+package Component;
+
+import entity.EnhancedJob;
+import entity.JobHandle;
+import enumeration.AdmissionPolicyEnum;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * <b> Bounded Trigger Admission Controller Class </b>
+ *
+ * <p> Caps the number of live jobs of a trigger, a job counts from its admission until it is cancelled or
+ * runs out of executions, so a recurring job never has to be admitted again. A full trigger either rejects
+ * new jobs or sheds a job of the lowest priority level below the new one, and a producer that would rather
+ * wait gets a future instead, served by priority as soon as live jobs leave. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/22
+ */
+public class AdmissionController {
+
+    private final int capacity ;
+    private final AdmissionPolicyEnum admissionPolicy ;
+    private final Function<EnhancedJob, JobHandle> jobEnqueuer ;
+    private final ReentrantLock lock = new ReentrantLock() ;
+    // Live jobs by priority level
+    private final TreeMap<Integer, Set<EnhancedJob>> admittedJobMap = new TreeMap<>() ;
+    private final PriorityQueue<PendingAdmission> pendingAdmissions = new PriorityQueue<>(
+            Comparator.comparingInt((PendingAdmission pendingAdmission) -> pendingAdmission.enhancedJob.getPriorityLevel())
+                    .thenComparingLong(pendingAdmission -> pendingAdmission.sequence)
+    ) ;
+    private int admittedJobCounter ;
+    private long pendingSequence ;
+    private final LongAdder rejectedJobCounter = new LongAdder() ;
+    private final LongAdder shedJobCounter = new LongAdder() ;
+
+    /**
+     * @param capacity The maximum number of live jobs, also the maximum number of producers waiting on a future
+     * @param admissionPolicy What happens to a job arriving at a full trigger
+     * @param jobEnqueuer Queues an admitted job and returns its handle, releases the job itself if that fails,
+     *                    called without any lock held
+     */
+    public AdmissionController(int capacity, AdmissionPolicyEnum admissionPolicy, Function<EnhancedJob, JobHandle> jobEnqueuer) {
+
+        if (capacity <= 0) throw new IllegalArgumentException("Admission capacity must be positive: " + capacity) ;
+
+        this.capacity = capacity ;
+        this.admissionPolicy = admissionPolicy ;
+        this.jobEnqueuer = jobEnqueuer ;
+    }
+
+    /**
+     * <p> To admit a job or fail right away, a shed job is cancelled through its handle </p>
+     *
+     * @throws RejectedExecutionException if the trigger is full and nothing can be shed
+     */
+    public void admit(EnhancedJob enhancedJob) {
+
+        EnhancedJob shedJob ;
+
+        lock.lock() ;
+        try {
+
+            shedJob = tryAdmit(enhancedJob) ;
+
+            if (shedJob == enhancedJob) throw reject() ;
+        } finally {
+            lock.unlock() ;
+        }
+
+        if (shedJob != null) shedJob.getJobHandle().cancel() ;
+    }
+
+    /**
+     * <p> To admit a whole batch only if it fits into the free room, a batch never sheds </p>
+     *
+     * @throws RejectedExecutionException if the batch does not fit
+     */
+    public void admitAll(Collection<EnhancedJob> enhancedJobs) {
+
+        lock.lock() ;
+        try {
+
+            if (admittedJobCounter + enhancedJobs.size() > capacity) throw reject() ;
+
+            for (EnhancedJob enhancedJob : enhancedJobs) add(enhancedJob) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * <p> To count a job recovered from a job store, which was admitted before the restart and is never refused </p>
+     */
+    public void readmit(EnhancedJob enhancedJob) {
+
+        lock.lock() ;
+        try {
+
+            add(enhancedJob) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * <p> To admit a job, or let the producer wait for room while the trigger is full </p>
+     *
+     * @return The future of the handle, completed right away unless the job has to wait, and failed with a
+     * {@link RejectedExecutionException} if even the waiting producers are at capacity
+     */
+    public CompletableFuture<JobHandle> submit(EnhancedJob enhancedJob) {
+
+        EnhancedJob shedJob ;
+
+        lock.lock() ;
+        try {
+
+            shedJob = tryAdmit(enhancedJob) ;
+
+            if (shedJob == enhancedJob) {
+
+                if (pendingAdmissions.size() >= capacity) return CompletableFuture.failedFuture(reject()) ;
+
+                PendingAdmission pendingAdmission = new PendingAdmission(enhancedJob, pendingSequence ++) ;
+                pendingAdmissions.offer(pendingAdmission) ;
+
+                return pendingAdmission.future ;
+            }
+        } finally {
+            lock.unlock() ;
+        }
+
+        if (shedJob != null) shedJob.getJobHandle().cancel() ;
+
+        return enqueue(enhancedJob) ;
+    }
+
+    /**
+     * <p> To stop counting a job that left the trigger, the room goes to the waiting producers first </p>
+     */
+    public void release(EnhancedJob enhancedJob) {
+
+        List<PendingAdmission> admittedPendingAdmissions ;
+
+        lock.lock() ;
+        try {
+
+            Set<EnhancedJob> admittedJobs = admittedJobMap.get(enhancedJob.getPriorityLevel()) ;
+
+            if (admittedJobs == null || !admittedJobs.remove(enhancedJob)) return ;
+
+            if (admittedJobs.isEmpty()) admittedJobMap.remove(enhancedJob.getPriorityLevel()) ;
+            admittedJobCounter -- ;
+
+            if (pendingAdmissions.isEmpty()) return ;
+
+            admittedPendingAdmissions = new ArrayList<>() ;
+            while (admittedJobCounter < capacity && !pendingAdmissions.isEmpty()) {
+
+                PendingAdmission pendingAdmission = pendingAdmissions.poll() ;
+
+                // Given up by the producer while waiting
+                if (pendingAdmission.future.isDone()) continue ;
+
+                // Cancelled while waiting, its handle is handed out but it takes no room
+                if (pendingAdmission.enhancedJob.isCancelled()) {
+
+                    pendingAdmission.future.complete(pendingAdmission.enhancedJob.getJobHandle()) ;
+
+                    continue ;
+                }
+
+                add(pendingAdmission.enhancedJob) ;
+                admittedPendingAdmissions.add(pendingAdmission) ;
+            }
+        } finally {
+            lock.unlock() ;
+        }
+
+        for (PendingAdmission pendingAdmission : admittedPendingAdmissions) {
+
+            enqueue(pendingAdmission.enhancedJob).whenComplete((jobHandle, throwable) -> {
+
+                if (throwable == null) pendingAdmission.future.complete(jobHandle) ;
+                else pendingAdmission.future.completeExceptionally(throwable) ;
+            }) ;
+        }
+    }
+
+    private CompletableFuture<JobHandle> enqueue(EnhancedJob enhancedJob) {
+
+        try {
+
+            return CompletableFuture.completedFuture(jobEnqueuer.apply(enhancedJob)) ;
+        } catch (RuntimeException exception) {
+
+            return CompletableFuture.failedFuture(exception) ;
+        }
+    }
+
+    /**
+     * @return The shed job, null if there was room, or the given job itself if it cannot be admitted
+     */
+    private EnhancedJob tryAdmit(EnhancedJob enhancedJob) {
+
+        if (admittedJobCounter < capacity) {
+
+            add(enhancedJob) ;
+
+            return null ;
+        }
+
+        if (admissionPolicy != AdmissionPolicyEnum.SHED_LOWEST_PRIORITY) return enhancedJob ;
+
+        // A larger level is a lower priority
+        Map.Entry<Integer, Set<EnhancedJob>> lowestPriorityEntry = admittedJobMap.lastEntry() ;
+
+        if (lowestPriorityEntry.getKey() <= enhancedJob.getPriorityLevel()) return enhancedJob ;
+
+        EnhancedJob shedJob = lowestPriorityEntry.getValue().iterator().next() ;
+        lowestPriorityEntry.getValue().remove(shedJob) ;
+        if (lowestPriorityEntry.getValue().isEmpty()) admittedJobMap.remove(lowestPriorityEntry.getKey()) ;
+        admittedJobCounter -- ;
+
+        shedJobCounter.increment() ;
+
+        add(enhancedJob) ;
+
+        return shedJob ;
+    }
+
+    private void add(EnhancedJob enhancedJob) {
+
+        admittedJobMap.computeIfAbsent(enhancedJob.getPriorityLevel(), key -> Collections.newSetFromMap(new IdentityHashMap<>())).add(enhancedJob) ;
+        admittedJobCounter ++ ;
+    }
+
+    private RejectedExecutionException reject() {
+
+        rejectedJobCounter.increment() ;
+
+        return new RejectedExecutionException("The trigger is at its admission capacity of " + capacity + " jobs") ;
+    }
+
+    public int getAdmittedJobCounter() {
+
+        lock.lock() ;
+        try {
+
+            return admittedJobCounter ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    public long getRejectedJobCounter() {
+
+        return rejectedJobCounter.sum() ;
+    }
+
+    public long getShedJobCounter() {
+
+        return shedJobCounter.sum() ;
+    }
+
+    private static class PendingAdmission {
+
+        private final EnhancedJob enhancedJob ;
+        private final long sequence ;
+        private final CompletableFuture<JobHandle> future = new CompletableFuture<>() ;
+
+        PendingAdmission(EnhancedJob enhancedJob, long sequence) {
+
+            this.enhancedJob = enhancedJob ;
+            this.sequence = sequence ;
+        }
+    }
+}
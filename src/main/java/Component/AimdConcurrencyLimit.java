@@ -0,0 +1,84 @@
+package Component;
+
+import behavior.ConcurrencyLimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b> Additive Increase Multiplicative Decrease Concurrency Limit Class </b>
+ *
+ * <p> Judges the executions in windows of one limit worth of samples, like TCP judges a round trip. A window
+ * where too many executions failed or exceeded the latency threshold cuts the limit by a ratio, any other
+ * window raises it by one, or doubles it until the first cut (slow start). The limit only grows while it is
+ * actually used, so an idle trigger keeps the limit it has proven. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/20
+ */
+public class AimdConcurrencyLimit implements ConcurrencyLimit {
+
+    private static final double BACKOFF_RATIO = 0.9 ;
+    private static final double MAX_CONGESTED_RATE = 0.1 ;
+
+    private final int minLimit ;
+    private final int maxLimit ;
+    private final long latencyThresholdNanos ;
+    private int limit ;
+    private boolean isSlowStart = true ;
+    private int sampleCounter ;
+    private int congestedCounter ;
+    private int maxInFlight ;
+
+    /**
+     * @param initialLimit The limit before the first window
+     * @param maxLimit The upper bound of the limit
+     * @param latencyThreshold The execution time in milliseconds above which an execution counts as congested
+     */
+    public AimdConcurrencyLimit(int initialLimit, int maxLimit, long latencyThreshold) {
+
+        if (initialLimit <= 0 || maxLimit < initialLimit) throw new IllegalArgumentException("Invalid limit range: " + initialLimit + " - " + maxLimit) ;
+        if (latencyThreshold <= 0) throw new IllegalArgumentException("Latency threshold must be positive: " + latencyThreshold) ;
+
+        this.minLimit = 1 ;
+        this.maxLimit = maxLimit ;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThreshold) ;
+        this.limit = initialLimit ;
+    }
+
+    @Override
+    public int getLimit() {
+
+        return limit ;
+    }
+
+    @Override
+    public int getMaxLimit() {
+
+        return maxLimit ;
+    }
+
+    @Override
+    public int onSample(long rttNanos, int inFlight, boolean dropped) {
+
+        sampleCounter ++ ;
+        if (dropped || rttNanos > latencyThresholdNanos) congestedCounter ++ ;
+        maxInFlight = Math.max(maxInFlight, inFlight) ;
+
+        if (sampleCounter < limit) return limit ;
+
+        if (congestedCounter > sampleCounter * MAX_CONGESTED_RATE) {
+
+            isSlowStart = false ;
+            limit = Math.max(minLimit, (int) (limit * BACKOFF_RATIO)) ;
+        } else if (maxInFlight * 2 >= limit) {
+
+            limit = Math.min(maxLimit, isSlowStart ? limit * 2 : limit + 1) ;
+        }
+
+        sampleCounter = 0 ;
+        congestedCounter = 0 ;
+        maxInFlight = 0 ;
+
+        return limit ;
+    }
+}
@@ -0,0 +1,288 @@
+package Component;
+
+import behavior.CoordinationStore;
+import lombok.extern.slf4j.Slf4j;
+import util.ConsistentHashRing;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <b> Cluster Node Class </b>
+ *
+ * <p> Every node schedules the same keyed jobs, but only the node owning the partition of a job key executes
+ * the job, the other nodes skip its executions. The partitions are spread over the live nodes by consistent
+ * hashing, and a node only counts a partition as its own while it holds the lease of the partition in the
+ * coordination store. </p>
+ *
+ * <p> A heartbeat renews the lease of the node itself and of its partitions three times per lease time. A node
+ * that dies stops renewing, once its leases expired the other nodes take its partitions over and their own
+ * copies of its jobs fire from the next slot on. A partition moving to a joining node is handed back right
+ * away, the joining node takes it on its next heartbeat. A node stops trusting its partitions a heartbeat before
+ * their leases could expire, so two nodes never execute the same partition at once unless their clocks drift
+ * apart by more than that. </p>
+ *
+ * <p> A node only skips an execution once it saw another live node renew the lease of its partition after the
+ * execution was due, that node either owned the partition at the time and executed it or took the partition
+ * over later and executes it late. Until then the execution waits and is checked again a heartbeat later, so
+ * that an execution due after its owner died, while the dead owner's lease had not expired yet, runs late on
+ * the next owner instead of being skipped everywhere. Every node must use the same lease time. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/23
+ */
+@Slf4j
+public class ClusterNode {
+
+    private static final String NODE_LEASE_PREFIX = "node/" ;
+    private static final String PARTITION_LEASE_PREFIX = "partition/" ;
+    private static final int DEFAULT_PARTITION_COUNTER = 128 ;
+    private static final long DEFAULT_LEASE_TIME = 10000 ;
+    private static final int VIRTUAL_NODE_COUNTER = 64 ;
+
+    private final String nodeId ;
+    private final CoordinationStore coordinationStore ;
+    private final int partitionCounter ;
+    private final long leaseTime ;
+    private final long heartbeatInterval ;
+    private final ScheduledExecutorService heartbeatTimer ;
+    private volatile boolean[] ownedPartitions ;
+    private volatile long ownershipExpireNanoTime ;
+    // Partitions whose lease another live node held on the last heartbeat, and when it renewed them
+    private volatile ForeignPartitionLeases foreignPartitionLeases ;
+    private volatile Set<String> liveNodeIds = Set.of() ;
+    private ConsistentHashRing consistentHashRing ;
+
+    public ClusterNode(String nodeId, CoordinationStore coordinationStore) {
+
+        this(nodeId, coordinationStore, DEFAULT_PARTITION_COUNTER, DEFAULT_LEASE_TIME) ;
+    }
+
+    /**
+     * @param nodeId The id of the node, unique within the cluster
+     * @param coordinationStore The store shared by all nodes of the cluster
+     * @param partitionCounter The number of partitions, must be the same on every node
+     * @param leaseTime The time in milliseconds a lease stays valid without being renewed, also the failover time
+     */
+    public ClusterNode(String nodeId, CoordinationStore coordinationStore, int partitionCounter, long leaseTime) {
+
+        if (partitionCounter <= 0) throw new IllegalArgumentException("Partition counter must be positive: " + partitionCounter) ;
+        if (leaseTime < 3) throw new IllegalArgumentException("Lease time must be at least 3 ms: " + leaseTime) ;
+
+        this.nodeId = nodeId ;
+        this.coordinationStore = coordinationStore ;
+        this.partitionCounter = partitionCounter ;
+        this.leaseTime = leaseTime ;
+        this.heartbeatInterval = leaseTime / 3 ;
+        this.ownedPartitions = new boolean[partitionCounter] ;
+        this.foreignPartitionLeases = new ForeignPartitionLeases(partitionCounter) ;
+        this.heartbeatTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+            Thread thread = new Thread(runnable) ;
+            thread.setName("ClusterNode - Heartbeat - " + nodeId) ;
+            thread.setDaemon(true) ;
+
+            return thread ;
+        }) ;
+
+        // The first heartbeat runs right away, so a node owns whatever is free before its trigger dispatches
+        heartbeat() ;
+        heartbeatTimer.scheduleAtFixedRate(this::heartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS) ;
+    }
+
+    private void heartbeat() {
+
+        long heartbeatNanoTime = System.nanoTime() ;
+
+        try {
+
+            if (!coordinationStore.tryAcquireLease(NODE_LEASE_PREFIX + nodeId, nodeId, leaseTime)) {
+
+                log.error("The node id {} is already taken by a live node", nodeId) ;
+
+                ownedPartitions = new boolean[partitionCounter] ;
+                foreignPartitionLeases = new ForeignPartitionLeases(partitionCounter) ;
+
+                return ;
+            }
+
+            Set<String> nodeIds = new TreeSet<>(coordinationStore.getLeases(NODE_LEASE_PREFIX).values()) ;
+
+            if (!nodeIds.equals(liveNodeIds)) {
+
+                log.info("Cluster node {} sees the live nodes {}", nodeId, nodeIds) ;
+
+                consistentHashRing = new ConsistentHashRing(nodeIds, VIRTUAL_NODE_COUNTER) ;
+                liveNodeIds = Set.copyOf(nodeIds) ;
+            }
+
+            boolean[] previousOwnedPartitions = ownedPartitions ;
+            boolean[] currentOwnedPartitions = new boolean[partitionCounter] ;
+            for (int partition = 0 ; partition < partitionCounter ; partition ++) {
+
+                String partitionLeaseKey = PARTITION_LEASE_PREFIX + partition ;
+
+                if (nodeId.equals(consistentHashRing.getNodeId(partitionLeaseKey))) {
+
+                    currentOwnedPartitions[partition] = coordinationStore.tryAcquireLease(partitionLeaseKey, nodeId, leaseTime) ;
+                }
+            }
+
+            // Stop executing the moved partitions before their leases are handed back
+            ownedPartitions = currentOwnedPartitions ;
+            ownershipExpireNanoTime = heartbeatNanoTime + TimeUnit.MILLISECONDS.toNanos(leaseTime - heartbeatInterval) ;
+
+            for (int partition = 0 ; partition < partitionCounter ; partition ++) {
+
+                if (previousOwnedPartitions[partition] && !currentOwnedPartitions[partition]) {
+
+                    coordinationStore.releaseLease(PARTITION_LEASE_PREFIX + partition, nodeId) ;
+                }
+            }
+
+            foreignPartitionLeases = readForeignPartitionLeases(nodeIds) ;
+        } catch (RuntimeException exception) {
+
+            // The partitions stay trusted until their leases could expire, a later heartbeat may still renew them
+            log.error("Cluster node {} failed its heartbeat: {}", nodeId, exception.getMessage()) ;
+        }
+    }
+
+    /**
+     * @param jobKey The stable key of a job, the same on every node
+     * @return Whether this node executes the jobs of the key right now
+     */
+    public boolean isOwner(String jobKey) {
+
+        if (System.nanoTime() - ownershipExpireNanoTime >= 0) return false ;
+
+        return ownedPartitions[getPartition(jobKey)] ;
+    }
+
+    private ForeignPartitionLeases readForeignPartitionLeases(Set<String> nodeIds) {
+
+        Map<String, String> partitionLeases = coordinationStore.getLeases(PARTITION_LEASE_PREFIX) ;
+        Map<String, Long> partitionLeaseExpireTimes = coordinationStore.getLeaseExpireTimes(PARTITION_LEASE_PREFIX) ;
+        long currentTime = System.currentTimeMillis() ;
+        long currentNanoTime = System.nanoTime() ;
+
+        ForeignPartitionLeases currentForeignPartitionLeases = new ForeignPartitionLeases(partitionCounter) ;
+        for (Map.Entry<String, String> entry : partitionLeases.entrySet()) {
+
+            Long expireTime = partitionLeaseExpireTimes.get(entry.getKey()) ;
+
+            // A lease outliving its node is no owner, the node died and the lease is only waiting to expire
+            if (entry.getValue().equals(nodeId) || !nodeIds.contains(entry.getValue()) || expireTime == null) continue ;
+
+            int partition = Integer.parseInt(entry.getKey().substring(PARTITION_LEASE_PREFIX.length())) ;
+
+            // Leases are renewed for the same lease time on every node, so the expire time tells when the owner renewed it
+            currentForeignPartitionLeases.isOwned[partition] = true ;
+            currentForeignPartitionLeases.renewNanoTimes[partition] = currentNanoTime + TimeUnit.MILLISECONDS.toNanos(expireTime - leaseTime - currentTime) ;
+        }
+
+        return currentForeignPartitionLeases ;
+    }
+
+    /**
+     * @param jobKey The stable key of a job, the same on every node
+     * @param dueNanoTime The monotonic time the execution was due
+     * @return Whether another live node renewed the lease of the key's partition after the execution was due, as
+     * seen on the last heartbeat. Then that node executes it, false while the partition is between owners.
+     */
+    public boolean isOwnedElsewhere(String jobKey, long dueNanoTime) {
+
+        ForeignPartitionLeases currentForeignPartitionLeases = foreignPartitionLeases ;
+        int partition = getPartition(jobKey) ;
+
+        return currentForeignPartitionLeases.isOwned[partition] && currentForeignPartitionLeases.renewNanoTimes[partition] - dueNanoTime >= 0 ;
+    }
+
+    public int getPartition(String jobKey) {
+
+        return (int) Math.floorMod(ConsistentHashRing.hash(jobKey), (long) partitionCounter) ;
+    }
+
+    /**
+     * @return The time in milliseconds between two heartbeats, a third of the lease time
+     */
+    public long getHeartbeatInterval() {
+
+        return heartbeatInterval ;
+    }
+
+    public String getNodeId() {
+
+        return nodeId ;
+    }
+
+    public Set<String> getLiveNodeIds() {
+
+        return liveNodeIds ;
+    }
+
+    public int getOwnedPartitionCounter() {
+
+        int ownedPartitionCounter = 0 ;
+        for (boolean isOwned : ownedPartitions) if (isOwned) ownedPartitionCounter ++ ;
+
+        return ownedPartitionCounter ;
+    }
+
+    /**
+     * <p> To leave the cluster, the leases are handed back so that the other nodes take over on their next heartbeat </p>
+     */
+    public void shutdown() {
+
+        heartbeatTimer.shutdownNow() ;
+
+        try {
+
+            // A heartbeat still running would publish its partitions again
+            heartbeatTimer.awaitTermination(leaseTime, TimeUnit.MILLISECONDS) ;
+        } catch (InterruptedException exception) {
+
+            Thread.currentThread().interrupt() ;
+        }
+
+        boolean[] previousOwnedPartitions = ownedPartitions ;
+        ownedPartitions = new boolean[partitionCounter] ;
+        foreignPartitionLeases = new ForeignPartitionLeases(partitionCounter) ;
+
+        try {
+
+            for (int partition = 0 ; partition < partitionCounter ; partition ++) {
+
+                if (previousOwnedPartitions[partition]) coordinationStore.releaseLease(PARTITION_LEASE_PREFIX + partition, nodeId) ;
+            }
+
+            coordinationStore.releaseLease(NODE_LEASE_PREFIX + nodeId, nodeId) ;
+        } catch (RuntimeException exception) {
+
+            log.error("Cluster node {} failed to hand back its leases: {}", nodeId, exception.getMessage()) ;
+        }
+    }
+
+    @Override
+    public String toString() {
+
+        return "ClusterNode(" + nodeId + ", owned partitions " + getOwnedPartitionCounter() + "/" + partitionCounter + ", live nodes " + liveNodeIds + ")" ;
+    }
+
+    private static class ForeignPartitionLeases {
+
+        private final boolean[] isOwned ;
+        // When the owner renewed the lease, on the monotonic clock of this node
+        private final long[] renewNanoTimes ;
+
+        ForeignPartitionLeases(int partitionCounter) {
+
+            this.isOwned = new boolean[partitionCounter] ;
+            this.renewNanoTimes = new long[partitionCounter] ;
+        }
+    }
+}
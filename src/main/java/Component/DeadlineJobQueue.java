@@ -0,0 +1,122 @@
+package Component;
+
+import behavior.JobQueue;
+import entity.EnhancedJob;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> Earliest Deadline First Job Queue Class </b>
+ *
+ * <p> Jobs wait in a start time ordered delay stage and are moved into a ready heap once due, take() hands
+ * out the ready job whose execution must complete first. Jobs without a deadline come after every job with
+ * one, ordered by their priority level. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/24
+ */
+public class DeadlineJobQueue implements JobQueue<EnhancedJob> {
+
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private final Condition available = lock.newCondition() ;
+    private final JobHeap<EnhancedJob> delayedJobs = new JobHeap<>((job1, job2) -> Long.compare(job1.getStartNanoTime() - job2.getStartNanoTime(), 0)) ;
+    private final JobHeap<EnhancedJob> readyJobs = new JobHeap<>(EnhancedJob::compareDeadline) ;
+
+    @Override
+    public void offer(EnhancedJob enhancedJob) {
+
+        lock.lock() ;
+        try {
+
+            delayedJobs.offer(enhancedJob) ;
+
+            // Wake the dispatcher only when its current wait deadline became too late
+            if (delayedJobs.peek() == enhancedJob) available.signal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void offerAll(Collection<? extends EnhancedJob> enhancedJobs) {
+
+        lock.lock() ;
+        try {
+
+            delayedJobs.offerAll(enhancedJobs) ;
+
+            available.signal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public EnhancedJob take() throws InterruptedException {
+
+        lock.lockInterruptibly() ;
+        try {
+
+            while (true) {
+
+                releaseDueJobs(System.nanoTime()) ;
+
+                if (!readyJobs.isEmpty()) return readyJobs.poll() ;
+
+                EnhancedJob head = delayedJobs.peek() ;
+
+                if (head == null) available.await() ;
+                else available.awaitNanos(head.getStartNanoTime() - System.nanoTime()) ;
+            }
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public EnhancedJob peek() {
+
+        lock.lock() ;
+        try {
+
+            return !readyJobs.isEmpty() ? readyJobs.peek() : delayedJobs.peek() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int purgeCancelled() {
+
+        lock.lock() ;
+        try {
+
+            return delayedJobs.removeIf(EnhancedJob::isCancelled) + readyJobs.removeIf(EnhancedJob::isCancelled) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int size() {
+
+        lock.lock() ;
+        try {
+
+            return delayedJobs.size() + readyJobs.size() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    private void releaseDueJobs(long currentNanoTime) {
+
+        EnhancedJob head ;
+        while ((head = delayedJobs.peek()) != null && head.getStartNanoTime() - currentNanoTime <= 0) {
+
+            readyJobs.offer(delayedJobs.poll()) ;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package Component;
+
+import behavior.JobQueue;
+import entity.EnhancedJob;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> Two-Level Delay / Ready Job Queue Class </b>
+ *
+ * <p> Jobs wait in a start time ordered delay stage and are moved into a FIFO ready queue of their
+ * priority level once due, take() drains the ready queues from the highest priority (lowest level)
+ * down. A job that is not yet due never blocks an overdue job, whatever their priority levels. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/09
+ */
+public class DelayReadyJobQueue implements JobQueue<EnhancedJob> {
+
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private final Condition available = lock.newCondition() ;
+    private final JobHeap<EnhancedJob> delayedJobs = new JobHeap<>((job1, job2) -> Long.compare(job1.getStartNanoTime() - job2.getStartNanoTime(), 0)) ;
+    private final TreeMap<Integer, ArrayDeque<EnhancedJob>> readyJobQueues = new TreeMap<>() ;
+    private int readyJobCounter ;
+
+    @Override
+    public void offer(EnhancedJob enhancedJob) {
+
+        lock.lock() ;
+        try {
+
+            delayedJobs.offer(enhancedJob) ;
+
+            // Wake the dispatcher only when its current wait deadline became too late
+            if (delayedJobs.peek() == enhancedJob) available.signal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void offerAll(Collection<? extends EnhancedJob> enhancedJobs) {
+
+        lock.lock() ;
+        try {
+
+            delayedJobs.offerAll(enhancedJobs) ;
+
+            available.signal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public EnhancedJob take() throws InterruptedException {
+
+        lock.lockInterruptibly() ;
+        try {
+
+            while (true) {
+
+                releaseDueJobs(System.nanoTime()) ;
+
+                if (readyJobCounter > 0) return pollReadyJob() ;
+
+                EnhancedJob head = delayedJobs.peek() ;
+
+                if (head == null) available.await() ;
+                else available.awaitNanos(head.getStartNanoTime() - System.nanoTime()) ;
+            }
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public EnhancedJob peek() {
+
+        lock.lock() ;
+        try {
+
+            Map.Entry<Integer, ArrayDeque<EnhancedJob>> firstReadyEntry = readyJobQueues.firstEntry() ;
+
+            return firstReadyEntry != null ? firstReadyEntry.getValue().peekFirst() : delayedJobs.peek() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int purgeCancelled() {
+
+        lock.lock() ;
+        try {
+
+            int purgedCounter = delayedJobs.removeIf(EnhancedJob::isCancelled) ;
+
+            for (ArrayDeque<EnhancedJob> readyJobQueue : readyJobQueues.values()) {
+
+                int readySize = readyJobQueue.size() ;
+                readyJobQueue.removeIf(EnhancedJob::isCancelled) ;
+                readyJobCounter -= readySize - readyJobQueue.size() ;
+                purgedCounter += readySize - readyJobQueue.size() ;
+            }
+            readyJobQueues.values().removeIf(ArrayDeque::isEmpty) ;
+
+            return purgedCounter ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int size() {
+
+        lock.lock() ;
+        try {
+
+            return delayedJobs.size() + readyJobCounter ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    private void releaseDueJobs(long currentNanoTime) {
+
+        EnhancedJob head ;
+        while ((head = delayedJobs.peek()) != null && head.getStartNanoTime() - currentNanoTime <= 0) {
+
+            readyJobQueues.computeIfAbsent(head.getPriorityLevel(), key -> new ArrayDeque<>()).offerLast(delayedJobs.poll()) ;
+            readyJobCounter ++ ;
+        }
+    }
+
+    private EnhancedJob pollReadyJob() {
+
+        Map.Entry<Integer, ArrayDeque<EnhancedJob>> firstReadyEntry = readyJobQueues.firstEntry() ;
+        EnhancedJob enhancedJob = firstReadyEntry.getValue().pollFirst() ;
+
+        // Empty levels are dropped so that firstEntry() always points at a non-empty queue
+        if (firstReadyEntry.getValue().isEmpty()) readyJobQueues.remove(firstReadyEntry.getKey()) ;
+
+        readyJobCounter -- ;
+
+        return enhancedJob ;
+    }
+}
@@ -0,0 +1,146 @@
+package Component;
+
+import behavior.JobQueue;
+import entity.Job;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> Delayed Job Queue Class </b>
+ *
+ * <p> Heap ordered by the monotonic start time of the jobs, the natural order of the jobs only breaks ties.
+ * Dispatchers follow the leader/follower pattern: the leader waits exactly until the head is due, the
+ * others wait indefinitely, and inserting a new head signals the waiters so the deadline is re-evaluated. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/10
+ */
+public class DelayedJobQueue<T extends Job> implements JobQueue<T> {
+
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private final Condition available = lock.newCondition() ;
+    private final JobHeap<T> jobQueue = new JobHeap<>((job1, job2) -> {
+
+        int startNanoTimeCompare = Long.compare(job1.getStartNanoTime() - job2.getStartNanoTime(), 0) ;
+
+        return startNanoTimeCompare != 0 ? startNanoTimeCompare : job1.compareTo(job2) ;
+    }) ;
+    private Thread leader ;
+
+    @Override
+    public void offer(T job) {
+
+        lock.lock() ;
+        try {
+
+            jobQueue.offer(job) ;
+
+            if (jobQueue.peek() == job) {
+
+                leader = null ;
+                available.signal() ;
+            }
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void offerAll(Collection<? extends T> jobs) {
+
+        lock.lock() ;
+        try {
+
+            jobQueue.offerAll(jobs) ;
+
+            leader = null ;
+            available.signal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+
+        lock.lockInterruptibly() ;
+        try {
+
+            while (true) {
+
+                T head = jobQueue.peek() ;
+
+                if (head == null) {
+
+                    available.await() ;
+                    continue ;
+                }
+
+                long remainingNanos = head.getStartNanoTime() - System.nanoTime() ;
+
+                if (remainingNanos <= 0) return jobQueue.poll() ;
+
+                // Do not keep a reference to the head while waiting, it may be taken by another dispatcher
+                head = null ;
+
+                if (leader != null) {
+
+                    available.await() ;
+                } else {
+
+                    Thread thisThread = Thread.currentThread() ;
+                    leader = thisThread ;
+                    try {
+
+                        available.awaitNanos(remainingNanos) ;
+                    } finally {
+                        if (leader == thisThread) leader = null ;
+                    }
+                }
+            }
+        } finally {
+
+            if (leader == null && jobQueue.peek() != null) available.signal() ;
+
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public T peek() {
+
+        lock.lock() ;
+        try {
+
+            return jobQueue.peek() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int purgeCancelled() {
+
+        lock.lock() ;
+        try {
+
+            return jobQueue.removeIf(Job::isCancelled) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int size() {
+
+        lock.lock() ;
+        try {
+
+            return jobQueue.size() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package Component;
+
+import util.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <b> Dispatch Lag Recorder Class </b>
+ *
+ * <p> Records how late jobs are handed off or started, measured against their monotonic start time. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/10
+ */
+public class DispatchLagRecorder {
+
+    private final LongAdder dispatchCounter = new LongAdder() ;
+    private final LongAdder totalLagNanos = new LongAdder() ;
+    private final AtomicLong maxLagNanos = new AtomicLong() ;
+    private final LatencyHistogram lagMicrosHistogram = new LatencyHistogram() ;
+    private volatile long lastLagNanos ;
+
+    public void record(long lagNanos) {
+
+        // A job taken slightly before its deadline is not early in any useful sense
+        long lag = Math.max(0, lagNanos) ;
+
+        dispatchCounter.increment() ;
+        totalLagNanos.add(lag) ;
+        maxLagNanos.accumulateAndGet(lag, Math::max) ;
+        lastLagNanos = lag ;
+        lagMicrosHistogram.record(lag / 1_000) ;
+    }
+
+    public long getDispatchCounter() {
+
+        return dispatchCounter.sum() ;
+    }
+
+    public long getLastLag(TimeUnit timeUnit) {
+
+        return timeUnit.convert(lastLagNanos, TimeUnit.NANOSECONDS) ;
+    }
+
+    public long getMaxLag(TimeUnit timeUnit) {
+
+        return timeUnit.convert(maxLagNanos.get(), TimeUnit.NANOSECONDS) ;
+    }
+
+    public long getAverageLag(TimeUnit timeUnit) {
+
+        long counter = dispatchCounter.sum() ;
+
+        return counter == 0 ? 0 : timeUnit.convert(totalLagNanos.sum() / counter, TimeUnit.NANOSECONDS) ;
+    }
+
+    /**
+     * @param percentile The fraction between 0 and 1, e.g. 0.99 for p99
+     * @param timeUnit The time unit of the result, at most microsecond precise
+     * @return The lag at the percentile
+     */
+    public long getLagPercentile(double percentile, TimeUnit timeUnit) {
+
+        return timeUnit.convert(lagMicrosHistogram.getValueAtPercentile(percentile), TimeUnit.MICROSECONDS) ;
+    }
+}
@@ -1,18 +1,33 @@
 package Component;
 
+import behavior.JobQueue;
+import behavior.JobStore;
 import behavior.TaskScheduler;
+import entity.DurableJobRecord;
 import entity.EnhancedJob;
+import entity.EnhancedTriggerConfig;
 import entity.Job;
+import entity.JobGroup;
+import entity.JobHandle;
+import entity.TriggerMetricsSnapshot;
+import enumeration.ExecutionModeEnum;
+import enumeration.QueueModeEnum;
 import enumeration.TaskStatusEnum;
 import functionalInterface.InterruptedExceptionHandler;
-import functionalInterface.FutureClassGetMethodHandler;
 import lombok.extern.slf4j.Slf4j;
+import util.CronExpression;
 import util.FormattedDateTimeUtil;
+import util.MBeanRegistrationUtil;
 
+import javax.management.ObjectName;
+
+import java.time.ZoneId;
+import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
 /**
  * <b> Task Execution Enhanced Trigger Class </b>
@@ -23,31 +38,118 @@ import java.util.concurrent.locks.LockSupport;
 @Slf4j
 public class EnhancedTrigger implements TaskScheduler {
 
-    private final ThreadPoolExecutor executorService ;
-    private final PriorityBlockingQueue<EnhancedJob> enhancedJobQueue ;
+    private final ExecutorService executorService ;
+    private final JobQueue<EnhancedJob>[] enhancedJobQueues ;
     private final AtomicBoolean isRunning ;
-    private final Thread processingThread ;
+    private final Thread[] processingThreads ;
     private final TaskResourceManager taskResourceManager ;
+    private final JobGroupDispatcher jobGroupDispatcher ;
+    private final AdmissionController admissionController ;
+    private final ScheduledExecutorService timeoutTimer ;
+    private final DispatchLagRecorder dispatchLagRecorder ;
+    private final DispatchLagRecorder startLagRecorder ;
+    private final List<ObjectName> mBeanObjectNames ;
+    private final AtomicInteger cancelledJobCounter ;
+    private final JobStore jobStore ;
+    private final ScheduledExecutorService jobStoreCompactor ;
+    private final TaskRegistry taskRegistry ;
+    private final List<JobHandle> recoveredJobHandles ;
+    // Stored jobs by the name of their task, left unscheduled by the recovery until their task is registered
+    private final Map<String, List<DurableJobRecord>> unregisteredJobRecordMap ;
+    private final ClusterNode clusterNode ;
+    private final long defaultTimeout ;
+    private final JobQueue<EnhancedJob> retryJobQueue ;
+    private final RetryBudget retryBudget ;
+    private final Map<String, RetryBudget> retryBudgetMap ;
+    private final long retryBaseDelay ;
+    private final long retryMaxDelay ;
+    private final AtomicLong retriedJobCounter ;
+    private final AtomicLong deniedRetryCounter ;
     private EnhancedJob lastExecutedJob ;
 
-    private static Future<?> future = new CompletableFuture<>() ;
-    private static final long TASK_TIMEOUT = 60000 ;
+    private static final int PURGE_THRESHOLD = 1024 ;
 
     public EnhancedTrigger() {
 
-        this.executorService = createExecutorService() ;
-        this.enhancedJobQueue = new PriorityBlockingQueue<>() ;
+        this(QueueModeEnum.PRIORITY) ;
+    }
+
+    public EnhancedTrigger(QueueModeEnum queueMode) {
+
+        this(EnhancedTriggerConfig.builder().queueMode(queueMode).build()) ;
+    }
+
+    public EnhancedTrigger(EnhancedTriggerConfig config) {
+
+        this.enhancedJobQueues = createJobQueues(config.getQueueMode(), config.getShardCounter()) ;
         this.isRunning = new AtomicBoolean(true) ;
-        this.taskResourceManager = new TaskResourceManager(Runtime.getRuntime().availableProcessors()) ;
-        this.processingThread = createProcessingThread() ;
-        this.processingThread.start() ;
+        this.taskResourceManager = config.getConcurrencyLimit() != null
+                ? new TaskResourceManager(config.getConcurrencyLimit())
+                : new TaskResourceManager(config.getMaxConcurrentTaskCounter()) ;
+        this.executorService = createExecutorService(config.getExecutionMode()) ;
+        this.timeoutTimer = createTimeoutTimer() ;
+        this.jobGroupDispatcher = new JobGroupDispatcher(
+                config.getJobGroups(), taskResourceManager, this::startExecution,
+                config.getQueueMode() == QueueModeEnum.EARLIEST_DEADLINE ? EnhancedJob::compareDeadline : Job::compareTo,
+                timeoutTimer
+        ) ;
+        this.dispatchLagRecorder = new DispatchLagRecorder() ;
+        this.startLagRecorder = new DispatchLagRecorder() ;
+        this.cancelledJobCounter = new AtomicInteger(0) ;
+        this.jobStore = config.getJobStore() ;
+        this.taskRegistry = config.getTaskRegistry() ;
+        this.clusterNode = config.getClusterNode() ;
+        this.defaultTimeout = config.getDefaultTimeout() ;
+        this.retryJobQueue = new DelayedJobQueue<>() ;
+        this.retryBudget = config.getRetryBudget() ;
+        this.retryBudgetMap = createRetryBudgetMap(config.getJobGroups()) ;
+        this.retryBaseDelay = config.getRetryBaseDelay() ;
+        this.retryMaxDelay = config.getRetryMaxDelay() ;
+        this.retriedJobCounter = new AtomicLong(0) ;
+        this.deniedRetryCounter = new AtomicLong(0) ;
+        this.admissionController = config.getAdmissionCapacity() != Integer.MAX_VALUE
+                ? new AdmissionController(config.getAdmissionCapacity(), config.getAdmissionPolicy(), this::enqueue)
+                : null ;
+        this.unregisteredJobRecordMap = new ConcurrentHashMap<>() ;
+        this.recoveredJobHandles = new CopyOnWriteArrayList<>(recoverDurableJobs()) ;
+        taskRegistry.setRegistrationListener(this::recoverUnregisteredJobs) ;
+        // A task registered while the recovery ran missed the listener
+        for (String taskName : List.copyOf(unregisteredJobRecordMap.keySet())) {
+
+            if (taskRegistry.isRegistered(taskName)) recoverUnregisteredJobs(taskName) ;
+        }
+        this.processingThreads = new Thread[enhancedJobQueues.length + 1] ;
+        for (int i = 0 ; i < enhancedJobQueues.length ; i ++) {
+
+            processingThreads[i] = createProcessingThread(enhancedJobQueues[i]) ;
+            processingThreads[i].setName("EnhancedTrigger - Dispatcher - " + i) ;
+            processingThreads[i].start() ;
+        }
+        // Retries wait in a lane of their own, so a burst of failures never holds up the first attempts behind it
+        processingThreads[enhancedJobQueues.length] = createProcessingThread(retryJobQueue) ;
+        processingThreads[enhancedJobQueues.length].setName("EnhancedTrigger - Retry Dispatcher") ;
+        processingThreads[enhancedJobQueues.length].start() ;
+        this.mBeanObjectNames = registerMBeans() ;
+        this.jobStoreCompactor = jobStore != null ? createJobStoreCompactor(config.getSnapshotInterval()) : null ;
         log.info("The Enhanced Trigger was executed at: {}", FormattedDateTimeUtil.getWithBrackets()) ;
     }
 
-    private ThreadPoolExecutor createExecutorService() {
+    /**
+     * <p> The work queue is unbounded rather than sized to the permits: a timed out task ignoring its interrupt
+     * keeps its worker after its permit came back, and an adaptive limit moves the permit number, so the work in
+     * flight is not bounded by the permits and a bounded queue would reject jobs. The permits already bound what
+     * the dispatcher hands over, the queue only holds what the busy workers cannot take yet. </p>
+     */
+    private static ExecutorService createExecutorService(ExecutionModeEnum executionMode) {
+
+        if (executionMode == ExecutionModeEnum.VIRTUAL_THREAD) {
+
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("EnhancedTask - ", 1).factory()) ;
+        }
 
-        return new ThreadPoolExecutor(
-                Runtime.getRuntime().availableProcessors(), // Core Thread Number
+        // An unbounded queue never grows the pool past its core size, so the core size is the old maximum and idle workers time out instead
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                Runtime.getRuntime().availableProcessors() * 2, // Core Thread Number
                 Runtime.getRuntime().availableProcessors() * 2, // Max Thread Number
                 60L, // Free Thread Lifetime
                 TimeUnit.SECONDS,
@@ -66,11 +168,166 @@ public class EnhancedTrigger implements TaskScheduler {
                         return thread ;
                     }
                 },
-                new ThreadPoolExecutor.CallerRunsPolicy()
+                new ThreadPoolExecutor.AbortPolicy()
+        ) ;
+        threadPoolExecutor.allowCoreThreadTimeOut(true) ;
+
+        return threadPoolExecutor ;
+    }
+
+    private static JobQueue<EnhancedJob>[] createJobQueues(QueueModeEnum queueMode, int shardCounter) {
+
+        if (shardCounter <= 0) throw new IllegalArgumentException("Shard counter must be positive: " + shardCounter) ;
+
+        // No generic array creation in Java, the raw array only ever holds queues of enhanced jobs
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        JobQueue<EnhancedJob>[] jobQueues = new JobQueue[shardCounter] ;
+        for (int i = 0 ; i < shardCounter ; i ++) jobQueues[i] = createJobQueue(queueMode) ;
+
+        return jobQueues ;
+    }
+
+    private static JobQueue<EnhancedJob> createJobQueue(QueueModeEnum queueMode) {
+
+        return switch (queueMode) {
+
+            case PRIORITY -> new PriorityJobQueue<>() ;
+            case DELAY_READY -> new DelayReadyJobQueue() ;
+            case DUE_TIME -> new DelayedJobQueue<>() ;
+            case EARLIEST_DEADLINE -> new DeadlineJobQueue() ;
+        } ;
+    }
+
+    private List<ObjectName> registerMBeans() {
+
+        int instanceId = MBeanRegistrationUtil.nextInstanceId() ;
+
+        return Arrays.asList(
+                MBeanRegistrationUtil.register(new TriggerMetrics(this::getMetricsSnapshot), "EnhancedTrigger", instanceId),
+                MBeanRegistrationUtil.register(new TaskResourceMetrics(taskResourceManager::getMetricsSnapshot), "TaskResourceManager", instanceId)
         ) ;
     }
 
-    private Thread createProcessingThread() {
+    /**
+     * <p> To rebuild the queues from the job store, an overdue job is due right away and its misfire policy
+     * handles the slots missed while the trigger was down </p>
+     *
+     * @return The handles of the recovered jobs
+     */
+    private List<JobHandle> recoverDurableJobs() {
+
+        if (jobStore == null) return List.of() ;
+
+        long recoveryStartNanoTime = System.nanoTime() ;
+
+        List<DurableJobRecord> durableJobRecords = jobStore.recover() ;
+        List<DurableJobRecord> registeredJobRecords = new ArrayList<>(durableJobRecords.size()) ;
+        for (DurableJobRecord durableJobRecord : durableJobRecords) {
+
+            if (taskRegistry.isRegistered(durableJobRecord.getTaskName())) registeredJobRecords.add(durableJobRecord) ;
+            else unregisteredJobRecordMap.computeIfAbsent(durableJobRecord.getTaskName(), key -> new ArrayList<>()).add(durableJobRecord) ;
+        }
+
+        unregisteredJobRecordMap.forEach((taskName, unregisteredJobRecords) -> log.warn(
+                "No task registered under the name {}, its {} durable jobs wait in the job store until it is registered",
+                taskName, unregisteredJobRecords.size())) ;
+
+        List<JobHandle> jobHandles = scheduleDurableJobs(registeredJobRecords) ;
+
+        log.info("The Enhanced Trigger recovered {} durable jobs in {} ms", jobHandles.size(), (System.nanoTime() - recoveryStartNanoTime) / 1_000_000) ;
+
+        return jobHandles ;
+    }
+
+    /**
+     * <p> To schedule the stored jobs of a task registered after the recovery, called by the task registry </p>
+     */
+    private void recoverUnregisteredJobs(String taskName) {
+
+        List<DurableJobRecord> unregisteredJobRecords = unregisteredJobRecordMap.remove(taskName) ;
+
+        if (unregisteredJobRecords == null || !isRunning.get()) return ;
+
+        recoveredJobHandles.addAll(scheduleDurableJobs(unregisteredJobRecords)) ;
+
+        log.info("The Enhanced Trigger recovered {} durable jobs of the task {} registered after the recovery", unregisteredJobRecords.size(), taskName) ;
+    }
+
+    private List<JobHandle> scheduleDurableJobs(List<DurableJobRecord> durableJobRecords) {
+
+        List<EnhancedJob> recoveredJobs = new ArrayList<>(durableJobRecords.size()) ;
+        // Thousands of jobs usually share a handful of cron expressions, compile each of them once
+        Map<String, CronExpression> cronExpressionMap = new HashMap<>() ;
+        // Every recovered job is placed against the same clock reading instead of two clock calls per job
+        long currentTime = System.currentTimeMillis() ;
+        long currentNanoTime = System.nanoTime() ;
+        for (DurableJobRecord durableJobRecord : durableJobRecords) {
+
+            Runnable task = taskRegistry.createTask(durableJobRecord.getTaskName()) ;
+
+            EnhancedJob enhancedJob = durableJobRecord.getCronExpression() == null
+                    ? new EnhancedJob(task, durableJobRecord.getDelay(), durableJobRecord.getPriorityLevel(), durableJobRecord.getMaxRetryCounter())
+                    : new EnhancedJob(task, cronExpressionMap.computeIfAbsent(
+                            durableJobRecord.getCronExpression() + " " + durableJobRecord.getTimeZone(),
+                            key -> CronExpression.compile(durableJobRecord.getCronExpression(), ZoneId.of(durableJobRecord.getTimeZone()))
+                    ), durableJobRecord.getPriorityLevel(), durableJobRecord.getMaxRetryCounter()) ;
+            enhancedJob.setTaskName(durableJobRecord.getTaskName()) ;
+            enhancedJob.setJobKey(durableJobRecord.getJobKey()) ;
+            enhancedJob.setJobId(durableJobRecord.getJobId()) ;
+            enhancedJob.setRetryCounter(durableJobRecord.getRetryCounter()) ;
+            enhancedJob.setRecurrenceMode(durableJobRecord.getRecurrenceMode()) ;
+            enhancedJob.setMisfirePolicy(durableJobRecord.getMisfirePolicy()) ;
+            enhancedJob.setJobGroup(durableJobRecord.getJobGroup()) ;
+            enhancedJob.setTimeout(durableJobRecord.getTimeout()) ;
+            enhancedJob.setDeadline(durableJobRecord.getDeadline()) ;
+            enhancedJob.resetFireTime(durableJobRecord.getNextFireTime(), currentTime, currentNanoTime) ;
+
+            createJobHandle(enhancedJob) ;
+
+            if (admissionController != null) admissionController.readmit(enhancedJob) ;
+
+            recoveredJobs.add(enhancedJob) ;
+        }
+
+        return enqueueAll(recoveredJobs) ;
+    }
+
+    private ScheduledExecutorService createTimeoutTimer() {
+
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+
+            Thread thread = new Thread(runnable) ;
+            thread.setName("EnhancedTask - Timeout Timer") ;
+            thread.setDaemon(true) ;
+
+            return thread ;
+        }) ;
+        // Completed tasks cancel their timeouts, drop them at once instead of keeping them until they would fire
+        timer.setRemoveOnCancelPolicy(true) ;
+
+        return timer ;
+    }
+
+    /**
+     * <p> A snapshot of a large store takes seconds, on a thread of its own it never holds up the timeouts and
+     * the rate limit wake-ups of the timeout timer </p>
+     */
+    private ScheduledExecutorService createJobStoreCompactor(long snapshotInterval) {
+
+        ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+
+            Thread thread = new Thread(runnable) ;
+            thread.setName("EnhancedTrigger - Job Store Compactor") ;
+            thread.setDaemon(true) ;
+
+            return thread ;
+        }) ;
+        compactor.scheduleWithFixedDelay(this::compactJobStore, snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS) ;
+
+        return compactor ;
+    }
+
+    private Thread createProcessingThread(JobQueue<EnhancedJob> enhancedJobQueue) {
 
         return new Thread(() -> {
 
@@ -80,90 +337,451 @@ public class EnhancedTrigger implements TaskScheduler {
 
                     EnhancedJob enhancedJob = enhancedJobQueue.take() ;
 
-                    long currentTime = System.currentTimeMillis() ;
+                    if (enhancedJob.isCancelled()) return ;
+
+                    // Every node holds its own copy of a keyed job, only the owner of its partition executes it
+                    if (clusterNode != null && enhancedJob.getJobKey() != null && !clusterNode.isOwner(enhancedJob.getJobKey())) {
+
+                        if (clusterNode.isOwnedElsewhere(enhancedJob.getJobKey(), enhancedJob.getScheduledNanoTime())) {
 
-                    if (enhancedJob.getStartTime() <= currentTime) {
+                            rescheduleOrComplete(enhancedJob) ;
 
-                        executeWithRetry(enhancedJob) ;
-                    } else {
+                            return ;
+                        }
 
-                        enhancedJobQueue.offer(enhancedJob) ;
-                        LockSupport.parkUntil(enhancedJob.getStartTime()) ;
+                        // No node may run it right now, its slot stays and the next owner executes it late instead of every node skipping it
+                        enhancedJob.reschedule(TimeUnit.MILLISECONDS.toNanos(clusterNode.getHeartbeatInterval())) ;
+                        selectJobQueue(enhancedJob).offer(enhancedJob) ;
+
+                        return ;
                     }
+
+                    dispatchLagRecorder.record(System.nanoTime() - enhancedJob.getStartNanoTime()) ;
+
+                    executeWithRetry(enhancedJob) ;
                 }) ;
             }
         }) ;
     }
 
+    /**
+     * <p> To hand a due job over to its job group, it starts as soon as the group gets a permit </p>
+     */
     public void executeWithRetry(EnhancedJob enhancedJob) {
 
-        if (taskResourceManager.acquireTaskResource(5, TimeUnit.SECONDS)) {
+        jobGroupDispatcher.submit(enhancedJob) ;
+    }
+
+    /**
+     * <p> To run a job on a worker, called by the job group dispatcher with the permit already taken </p>
+     */
+    private void startExecution(EnhancedJob enhancedJob) {
+
+        long permitNanoTime = System.nanoTime() ;
+
+        if (enhancedJob.getRetryCounter() == 0) {
+
+            RetryBudget jobRetryBudget = getRetryBudget(enhancedJob) ;
+
+            if (jobRetryBudget != null) jobRetryBudget.deposit() ;
+        }
+
+        JobExecution jobExecution = new JobExecution(enhancedJob) ;
 
-            try {
+        try {
+
+            executorService.execute(() -> {
 
                 long startTime = System.currentTimeMillis() ;
-                future = executorService.submit(() -> {
+                long startNanoTime = System.nanoTime() ;
+                startLagRecorder.record(startNanoTime - enhancedJob.getStartNanoTime()) ;
 
-                    Thread.currentThread().setName("Task - " + enhancedJob.getPriorityLevel() + " - " + startTime) ;
+                Thread.currentThread().setName("Task - " + enhancedJob.getPriorityLevel() + " - " + startTime) ;
+                enhancedJob.setTaskStatus(TaskStatusEnum.RUNNING) ;
 
-                    enhancedJob.getTask().run() ;
-                }) ;
+                long timeoutNanos = getTimeoutNanos(enhancedJob, startNanoTime) ;
 
-                execute(() -> {
+                // A job already past its deadline fails without running
+                ScheduledFuture<?> timeout = timeoutNanos > 0 ? timeoutTimer.schedule(jobExecution::timeout, timeoutNanos, TimeUnit.NANOSECONDS) : null ;
+                if (timeout == null) jobExecution.timeout() ;
 
-                   future.get(TASK_TIMEOUT, TimeUnit.MILLISECONDS) ;
+                // Completes with the stage of an asynchronous task, the permit is held until then but the worker is not
+                jobExecution.getCompletion().whenComplete((ignored, throwable) -> {
 
-                   enhancedJob.setTaskStatus(TaskStatusEnum.COMPLETED) ;
-                   enhancedJob.setExecutionTime(System.currentTimeMillis() - startTime) ;
+                    if (timeout != null) timeout.cancel(false) ;
 
-                    EnhancedJob nextJob = createNextJobInternal(enhancedJob) ;
+                    // The adaptive limit also sees the wait for a pooled worker, a limit above the pool size only adds latency
+                    taskResourceManager.releaseTaskResource(enhancedJob.getJobGroup(), System.nanoTime() - permitNanoTime, throwable != null) ;
+                    jobGroupDispatcher.onTaskResourceReleased() ;
 
-                    enhancedJobQueue.offer(nextJob) ;
+                    long executionNanos = System.nanoTime() - startNanoTime ;
+                    long startLagNanos = startNanoTime - enhancedJob.getStartNanoTime() ;
 
-                }, enhancedJob) ;
+                    taskResourceManager.recordTaskExecution(
+                            enhancedJob.getTaskId(), throwable == null, executionNanos, startLagNanos, enhancedJob.getRetryCounter() > 0
+                    ) ;
 
+                    if (throwable == null) handleTaskComplete(enhancedJob, startTime) ;
+                    else handleTaskFail(enhancedJob, throwable) ;
+                }) ;
 
-            } finally {
-                taskResourceManager.releaseTaskResource() ;
-            }
+                jobExecution.run() ;
+            }) ;
+        } catch (RejectedExecutionException exception) {
+
+            taskResourceManager.releaseTaskResource(enhancedJob.getJobGroup()) ;
+            jobGroupDispatcher.onTaskResourceReleased() ;
+
+            // Only a shut down executor rejects, the job fails like an execution that could not start
+            handleTaskFail(enhancedJob, exception) ;
         }
     }
-    private EnhancedJob createNextJobInternal(EnhancedJob currentJob) {
 
-        if (enhancedJobQueue.isEmpty()) {
+    /**
+     * <p> An execution times out on its own timeout or on its deadline, whichever comes first </p>
+     */
+    private long getTimeoutNanos(EnhancedJob enhancedJob, long startNanoTime) {
+
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(enhancedJob.getTimeout() > 0 ? enhancedJob.getTimeout() : defaultTimeout) ;
+
+        if (enhancedJob.hasDeadline()) timeoutNanos = Math.min(timeoutNanos, enhancedJob.getDeadlineNanoTime() - startNanoTime) ;
+
+        return timeoutNanos ;
+    }
+
+    private void handleTaskComplete(EnhancedJob enhancedJob, long startTime) {
+
+        enhancedJob.setTaskStatus(TaskStatusEnum.COMPLETED) ;
+        enhancedJob.setExecutionTime(System.currentTimeMillis() - startTime) ;
+
+        if (enhancedJob.isCancelled()) return ;
+
+        rescheduleOrComplete(enhancedJob) ;
+    }
+
+    private void rescheduleOrComplete(EnhancedJob enhancedJob) {
+
+        if (!rescheduleNextJobInternal(enhancedJob)) {
 
-            return new EnhancedJob(
-                    currentJob.getTask(),
-                    currentJob.getDelay(),
-                    currentJob.getPriorityLevel(),
-                    currentJob.getMaxRetryCounter()
-            ) ;
+            releaseAdmission(enhancedJob) ;
+
+            recordDurableEvent(enhancedJob, JobStore::recordComplete) ;
+
+            // Only a last execution given up on the retry budget ends failed, a skipped one ran on its owner node
+            notifyCompletion(enhancedJob, enhancedJob.getTaskStatus() == TaskStatusEnum.FAILED ? TaskStatusEnum.FAILED : TaskStatusEnum.COMPLETED) ;
+
+            return ;
         }
 
-        EnhancedJob highestPriorityJob = enhancedJobQueue.peek() ;
+        recordDurableEvent(enhancedJob, JobStore::recordReschedule) ;
+
+        selectJobQueue(enhancedJob).offer(enhancedJob) ;
+    }
+
+    private boolean rescheduleNextJobInternal(EnhancedJob enhancedJob) {
+
+        if (!enhancedJob.reschedule()) return false ;
 
-        if (currentJob.getPriorityLevel() < highestPriorityJob.getPriorityLevel()) {
+        enhancedJob.setRetryCounter(0) ;
+        enhancedJob.setRetryDelay(0) ;
+        enhancedJob.setErrorMessage(null) ;
+        enhancedJob.setTaskStatus(TaskStatusEnum.PENDING) ;
 
-            return new EnhancedJob(
-                    highestPriorityJob.getTask(),
-                    highestPriorityJob.getDelay(),
-                    highestPriorityJob.getPriorityLevel(),
-                    highestPriorityJob.getMaxRetryCounter()
-            ) ;
+        return true ;
+    }
+
+    /**
+     * <p> To pick the shard of a job, keyed jobs always hash to the same shard while the others go to
+     * the less loaded of two random shards </p>
+     *
+     * @param job The job to be queued
+     * @return The job queue of the picked shard
+     */
+    private JobQueue<EnhancedJob> selectJobQueue(Job job) {
+
+        int shardCounter = enhancedJobQueues.length ;
+
+        if (shardCounter == 1) return enhancedJobQueues[0] ;
+
+        if (job.getJobKey() != null) {
+
+            int hash = job.getJobKey().hashCode() ;
+
+            return enhancedJobQueues[Math.floorMod(hash ^ (hash >>> 16), shardCounter)] ;
         }
 
-        return new EnhancedJob(
-                currentJob.getTask(),
-                currentJob.getDelay(),
-                currentJob.getPriorityLevel(),
-                currentJob.getMaxRetryCounter()
+        ThreadLocalRandom random = ThreadLocalRandom.current() ;
+        JobQueue<EnhancedJob> firstChoice = enhancedJobQueues[random.nextInt(shardCounter)] ;
+        JobQueue<EnhancedJob> secondChoice = enhancedJobQueues[random.nextInt(shardCounter)] ;
+
+        return firstChoice.size() <= secondChoice.size() ? firstChoice : secondChoice ;
+    }
+
+    public TaskResourceManager getTaskResourceManager() {
+
+        return taskResourceManager ;
+    }
+
+    /**
+     * <p> To poll the current gauges, cheap enough to be called at any rate </p>
+     *
+     * @return The metrics snapshot of the trigger
+     */
+    public TriggerMetricsSnapshot getMetricsSnapshot() {
+
+        return TriggerMetrics.createSnapshot(
+                getQueuedJobCounter(), dispatchLagRecorder, startLagRecorder, executorService, admissionController,
+                retriedJobCounter.get(), deniedRetryCounter.get()
         ) ;
     }
 
+    public DispatchLagRecorder getDispatchLagRecorder() {
+
+        return dispatchLagRecorder ;
+    }
+
+    public TaskRegistry getTaskRegistry() {
+
+        return taskRegistry ;
+    }
+
+    public ClusterNode getClusterNode() {
+
+        return clusterNode ;
+    }
+
+    /**
+     * <p> To cap the dispatch rate of the jobs of a key, e.g. the calls to a rate limited downstream. Jobs over the
+     * rate wait in the trigger for their next token instead of on a worker. Calling it again adjusts the limit. </p>
+     *
+     * @param jobKey The key of the jobs, see {@link EnhancedJob#setJobKey(String)}
+     * @param permitsPerSecond The steady rate of the jobs of the key
+     * @param burst The jobs of the key allowed at once after a quiet period
+     */
+    public void setRateLimit(String jobKey, double permitsPerSecond, int burst) {
+
+        jobGroupDispatcher.setKeyRateLimit(jobKey, permitsPerSecond, burst) ;
+    }
+
+    public void removeRateLimit(String jobKey) {
+
+        jobGroupDispatcher.removeKeyRateLimit(jobKey) ;
+    }
+
+    public TokenBucket getRateLimit(String jobKey) {
+
+        return jobGroupDispatcher.getKeyRateLimit(jobKey) ;
+    }
+
+    /**
+     * <p> To cap the dispatch rate of a configured job group at runtime, see {@link JobGroup#getRateLimit()} </p>
+     */
+    public void setJobGroupRateLimit(String jobGroup, double permitsPerSecond, int burst) {
+
+        jobGroupDispatcher.setJobGroupRateLimit(jobGroup, permitsPerSecond, burst) ;
+    }
+
+    public void removeJobGroupRateLimit(String jobGroup) {
+
+        jobGroupDispatcher.removeJobGroupRateLimit(jobGroup) ;
+    }
+
+    public TokenBucket getJobGroupRateLimit(String jobGroup) {
+
+        return jobGroupDispatcher.getJobGroupRateLimit(jobGroup) ;
+    }
+
+    /**
+     * @return The number of due jobs held back by the rate limit of their key
+     */
+    public int getRateLimitedJobCounter() {
+
+        return jobGroupDispatcher.getRateLimitedJobCounter() ;
+    }
+
+    /**
+     * @return The handles of the durable jobs recovered from the job store, on construction or once their task was registered
+     */
+    public List<JobHandle> getRecoveredJobHandles() {
+
+        return Collections.unmodifiableList(recoveredJobHandles) ;
+    }
+
+    /**
+     * <p> A durable job is persisted before it is queued, a failing job store rejects the job. A bounded
+     * trigger at its capacity sheds a job of a lower priority or throws a {@link RejectedExecutionException}. </p>
+     */
+    @Override
+    public JobHandle setToJobQueue(Job enhancedJob) {
+
+        createJobHandle((EnhancedJob) enhancedJob) ;
+
+        if (admissionController != null) admissionController.admit((EnhancedJob) enhancedJob) ;
+
+        return enqueue((EnhancedJob) enhancedJob) ;
+    }
+
+    /**
+     * <p> A bounded trigger at its capacity lets the job wait for room, the future completes once it is queued </p>
+     */
     @Override
-    public void setToJobQueue(Job enhancedJob) {
+    public CompletableFuture<JobHandle> submitToJobQueue(Job enhancedJob) {
+
+        if (admissionController == null) return TaskScheduler.super.submitToJobQueue(enhancedJob) ;
+
+        createJobHandle((EnhancedJob) enhancedJob) ;
+
+        return admissionController.submit((EnhancedJob) enhancedJob) ;
+    }
+
+    private JobHandle createJobHandle(EnhancedJob enhancedJob) {
+
+        return new JobHandle(enhancedJob, () -> onJobCancelled(enhancedJob)) ;
+    }
+
+    private JobHandle enqueue(EnhancedJob enhancedJob) {
+
+        try {
+
+            recordSchedule(enhancedJob) ;
+        } catch (RuntimeException exception) {
+
+            releaseAdmission(enhancedJob) ;
+
+            throw exception ;
+        }
+
+        selectJobQueue(enhancedJob).offer(enhancedJob) ;
+
+        return enhancedJob.getJobHandle() ;
+    }
+
+    /**
+     * <p> A bounded trigger only takes a batch that fits into its free room as a whole, it never sheds for a batch </p>
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<JobHandle> setAllToJobQueue(Collection<? extends Job> enhancedJobs) {
+
+        // Handles first, a concurrent admission may shed one of the batch jobs as soon as it is admitted
+        for (Job enhancedJob : enhancedJobs) createJobHandle((EnhancedJob) enhancedJob) ;
+
+        if (admissionController != null) admissionController.admitAll((Collection<EnhancedJob>) enhancedJobs) ;
+
+        try {
+
+            for (Job enhancedJob : enhancedJobs) recordSchedule((EnhancedJob) enhancedJob) ;
+        } catch (RuntimeException exception) {
+
+            for (Job enhancedJob : enhancedJobs) releaseAdmission((EnhancedJob) enhancedJob) ;
+
+            throw exception ;
+        }
+
+        return enqueueAll(enhancedJobs) ;
+    }
+
+    /**
+     * <p> To free the room of a job that left the trigger for good </p>
+     */
+    private void releaseAdmission(EnhancedJob enhancedJob) {
+
+        if (admissionController != null) admissionController.release(enhancedJob) ;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<JobHandle> enqueueAll(Collection<? extends Job> enhancedJobs) {
+
+        List<JobHandle> jobHandles = new ArrayList<>(enhancedJobs.size()) ;
+        for (Job enhancedJob : enhancedJobs) jobHandles.add(enhancedJob.getJobHandle()) ;
+
+        if (enhancedJobQueues.length == 1) {
+
+            enhancedJobQueues[0].offerAll((Collection<? extends EnhancedJob>) enhancedJobs) ;
+
+            return jobHandles ;
+        }
+
+        Map<JobQueue<EnhancedJob>, List<EnhancedJob>> shardJobsMap = new HashMap<>() ;
+        for (Job enhancedJob : enhancedJobs) {
+
+            shardJobsMap.computeIfAbsent(selectJobQueue(enhancedJob), key -> new ArrayList<>()).add((EnhancedJob) enhancedJob) ;
+        }
+
+        shardJobsMap.forEach(JobQueue::offerAll) ;
+
+        return jobHandles ;
+    }
+
+    private void recordSchedule(EnhancedJob enhancedJob) {
 
-        enhancedJobQueue.offer((EnhancedJob) enhancedJob) ;
+        if (jobStore != null && enhancedJob.isDurable()) jobStore.recordSchedule(enhancedJob) ;
+    }
+
+    /**
+     * <p> To persist an event of a durable job after it was scheduled, a failing job store is only logged so
+     * that the in-memory schedule keeps running </p>
+     *
+     * @param enhancedJob The job the event belongs to
+     * @param journalEvent The job store method recording the event
+     */
+    private void recordDurableEvent(EnhancedJob enhancedJob, BiConsumer<JobStore, EnhancedJob> journalEvent) {
+
+        if (jobStore == null || !enhancedJob.isDurable()) return ;
+
+        try {
+
+            journalEvent.accept(jobStore, enhancedJob) ;
+        } catch (RuntimeException exception) {
+
+            log.error("The Job Store failed to record durable job {}: {}", enhancedJob.getJobId(), exception.getMessage()) ;
+        }
+    }
+
+    private void compactJobStore() {
+
+        try {
+
+            jobStore.compact() ;
+        } catch (RuntimeException exception) {
+
+            log.error("The Job Store failed to compact: {}", exception.getMessage()) ;
+        }
+    }
+
+    private void onJobCancelled(EnhancedJob enhancedJob) {
+
+        releaseAdmission(enhancedJob) ;
+
+        recordDurableEvent(enhancedJob, JobStore::recordCancel) ;
+
+        notifyCompletion(enhancedJob, TaskStatusEnum.CANCELLED) ;
+
+        int cancelledCounter = cancelledJobCounter.incrementAndGet() ;
+
+        // Tombstones are dropped lazily at the head, sweep them out in bulk once they make up half of the queues
+        if (cancelledCounter >= PURGE_THRESHOLD && cancelledCounter * 2L >= getQueuedJobCounter()
+                && cancelledJobCounter.compareAndSet(cancelledCounter, 0)) {
+
+            for (JobQueue<EnhancedJob> enhancedJobQueue : enhancedJobQueues) enhancedJobQueue.purgeCancelled() ;
+
+            retryJobQueue.purgeCancelled() ;
+
+            jobGroupDispatcher.purgeCancelled() ;
+        }
+    }
+
+    public int getQueuedJobCounter() {
+
+        int queuedJobCounter = 0 ;
+        for (JobQueue<EnhancedJob> enhancedJobQueue : enhancedJobQueues) queuedJobCounter += enhancedJobQueue.size() ;
+
+        queuedJobCounter += retryJobQueue.size() ;
+
+        // Due jobs waiting in their job group for a permit or a token are still queued
+        queuedJobCounter += jobGroupDispatcher.size() ;
+
+        return queuedJobCounter ;
     }
 
     @Override
@@ -171,10 +789,14 @@ public class EnhancedTrigger implements TaskScheduler {
 
         isRunning.set(false) ;
 
-        processingThread.interrupt() ;
+        for (Thread processingThread : processingThreads) processingThread.interrupt() ;
 
         executorService.shutdown() ;
 
+        timeoutTimer.shutdownNow() ;
+
+        mBeanObjectNames.forEach(MBeanRegistrationUtil::unregister) ;
+
         handleInterrupt(() -> {
 
             if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -182,55 +804,114 @@ public class EnhancedTrigger implements TaskScheduler {
                 executorService.shutdownNow() ;
             }
         }) ;
+
+        if (clusterNode != null) clusterNode.shutdown() ;
+
+        if (jobStore != null) {
+
+            jobStoreCompactor.shutdown() ;
+
+            // A snapshot in progress completes before the store closes under it
+            handleInterrupt(() -> jobStoreCompactor.awaitTermination(5, TimeUnit.SECONDS)) ;
+
+            jobStore.close() ;
+        }
     }
 
-    private void handleTaskFail(EnhancedJob enhancedJob, String errorMessage) {
+    private void handleTaskFail(EnhancedJob enhancedJob, Throwable throwable) {
+
+        log.error(throwable.getMessage()) ;
+
+        enhancedJob.setErrorMessage(throwable.getMessage()) ;
 
-        enhancedJob.setErrorMessage(errorMessage) ;
+        boolean isRetryable = enhancedJob.getRetryCounter() < enhancedJob.getMaxRetryCounter() && !enhancedJob.isDeadlineExceeded(System.nanoTime()) ;
 
-        if (enhancedJob.getRetryCounter() < enhancedJob.getMaxRetryCounter()) {
+        if (enhancedJob.isCancelled()) {
+
+            enhancedJob.setTaskStatus(TaskStatusEnum.CANCELLED) ;
+        } else if (isRetryable && tryWithdrawRetryBudget(enhancedJob)) {
 
             enhancedJob.setRetryCounter(enhancedJob.getRetryCounter() + 1) ;
             enhancedJob.setTaskStatus(TaskStatusEnum.PENDING) ;
 
-            long retryDelay = enhancedJob.getDelay() * (long) Math.pow(2, enhancedJob.getRetryCounter()) ;
+            // The retry counter survives the reschedule, so maxRetryCounter is actually reached
+            enhancedJob.reschedule(TimeUnit.MILLISECONDS.toNanos(nextRetryDelay(enhancedJob))) ;
+
+            recordDurableEvent(enhancedJob, JobStore::recordReschedule) ;
+
+            retriedJobCounter.incrementAndGet() ;
+
+            retryJobQueue.offer(enhancedJob) ;
+        } else if (isRetryable) {
+
+            // The retry budget is spent, the failed execution is given up but the job keeps its next slots
+            deniedRetryCounter.incrementAndGet() ;
 
-            enhancedJobQueue.offer(new EnhancedJob(
-                    enhancedJob.getTask(),
-                    retryDelay,
-                    enhancedJob.getPriorityLevel(),
-                    enhancedJob.getMaxRetryCounter()
-            )) ;
+            enhancedJob.setTaskStatus(TaskStatusEnum.FAILED) ;
+
+            rescheduleOrComplete(enhancedJob) ;
         } else {
 
             enhancedJob.setTaskStatus(TaskStatusEnum.FAILED) ;
+
+            releaseAdmission(enhancedJob) ;
+
+            recordDurableEvent(enhancedJob, JobStore::recordComplete) ;
+
+            notifyCompletion(enhancedJob, TaskStatusEnum.FAILED) ;
         }
     }
 
-    /**
-     * <b> Exception Handler </b>
-     *
-     * @param handler functional interface to execute code block with throwing Exceptions
-     * @param enhancedJob entity param offers to handleTaskFail() method
-     */
-    private void execute(FutureClassGetMethodHandler handler, EnhancedJob enhancedJob) {
+    private void notifyCompletion(EnhancedJob enhancedJob, TaskStatusEnum taskStatus) {
+
+        if (enhancedJob.getCompletionListener() == null) return ;
 
         try {
 
-            handler.apply() ;
-        } catch (InterruptedException | ExecutionException e) {
+            enhancedJob.getCompletionListener().accept(taskStatus) ;
+        } catch (RuntimeException exception) {
 
-            log.error(e.getMessage()) ;
+            log.error("The completion listener of job {} failed: {}", enhancedJob.getJobKey(), exception.getMessage()) ;
+        }
+    }
+
+    /**
+     * <p> Decorrelated jitter: every backoff is drawn between the base delay and three times the previous one,
+     * so jobs failing together spread out instead of retrying in lockstep </p>
+     */
+    private long nextRetryDelay(EnhancedJob enhancedJob) {
+
+        long previousRetryDelay = Math.max(enhancedJob.getRetryDelay(), retryBaseDelay) ;
+        long retryDelay = Math.min(ThreadLocalRandom.current().nextLong(retryBaseDelay, previousRetryDelay * 3 + 1), retryMaxDelay) ;
 
-            handleTaskFail(enhancedJob, e.getMessage()) ;
-        } catch (TimeoutException te) {
+        enhancedJob.setRetryDelay(retryDelay) ;
+
+        return retryDelay ;
+    }
 
-            log.error(te.getMessage()) ;
+    private static Map<String, RetryBudget> createRetryBudgetMap(List<JobGroup> jobGroups) {
 
-            future.cancel(true) ;
+        Map<String, RetryBudget> retryBudgetMap = new HashMap<>() ;
+        for (JobGroup jobGroup : jobGroups) {
 
-            handleTaskFail(enhancedJob, "Task Timeout") ;
+            if (jobGroup.getRetryBudget() != null) retryBudgetMap.put(jobGroup.getName(), jobGroup.getRetryBudget()) ;
         }
+
+        return retryBudgetMap ;
+    }
+
+    private RetryBudget getRetryBudget(EnhancedJob enhancedJob) {
+
+        RetryBudget groupRetryBudget = retryBudgetMap.get(enhancedJob.getJobGroup() != null ? enhancedJob.getJobGroup() : JobGroup.DEFAULT_GROUP_NAME) ;
+
+        return groupRetryBudget != null ? groupRetryBudget : retryBudget ;
+    }
+
+    private boolean tryWithdrawRetryBudget(EnhancedJob enhancedJob) {
+
+        RetryBudget jobRetryBudget = getRetryBudget(enhancedJob) ;
+
+        return jobRetryBudget == null || jobRetryBudget.tryWithdraw() ;
     }
 
     /**
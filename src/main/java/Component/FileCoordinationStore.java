@@ -0,0 +1,215 @@
+package Component;
+
+import behavior.CoordinationStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> File Coordination Store Class </b>
+ *
+ * <p> Leases in a small text file of a directory shared by the nodes, e.g. the processes of a single host.
+ * Every operation reads and rewrites the file under an exclusive file lock, expired leases are dropped on
+ * the way. Leases expire on their own, so the file is never forced to disk. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/23
+ */
+public class FileCoordinationStore implements CoordinationStore {
+
+    private static final String LEASE_FILE_NAME = "leases.txt" ;
+    private static final String FIELD_SEPARATOR = "\t" ;
+    // A file lock only excludes other processes, the stores of this process on the same file take turns here
+    private static final Map<Path, ReentrantLock> PROCESS_LOCK_MAP = new ConcurrentHashMap<>() ;
+
+    private final Path leasePath ;
+    private final ReentrantLock processLock ;
+
+    /**
+     * @param directory The directory shared by all nodes, created if missing
+     */
+    public FileCoordinationStore(Path directory) {
+
+        try {
+
+            Files.createDirectories(directory) ;
+        } catch (IOException exception) {
+
+            throw new UncheckedIOException(exception) ;
+        }
+
+        this.leasePath = directory.resolve(LEASE_FILE_NAME).toAbsolutePath().normalize() ;
+        this.processLock = PROCESS_LOCK_MAP.computeIfAbsent(leasePath, key -> new ReentrantLock()) ;
+    }
+
+    @Override
+    public boolean tryAcquireLease(String leaseKey, String ownerId, long leaseTime) {
+
+        checkField(leaseKey) ;
+        checkField(ownerId) ;
+
+        return update(true, (leaseMap, currentTime) -> {
+
+            Lease current = leaseMap.get(leaseKey) ;
+
+            if (current != null && !current.ownerId.equals(ownerId)) return false ;
+
+            leaseMap.put(leaseKey, new Lease(ownerId, currentTime + leaseTime)) ;
+
+            return true ;
+        }) ;
+    }
+
+    @Override
+    public void releaseLease(String leaseKey, String ownerId) {
+
+        update(true, (leaseMap, currentTime) -> {
+
+            Lease current = leaseMap.get(leaseKey) ;
+
+            if (current != null && current.ownerId.equals(ownerId)) leaseMap.remove(leaseKey) ;
+
+            return null ;
+        }) ;
+    }
+
+    @Override
+    public Map<String, String> getLeases(String keyPrefix) {
+
+        return update(false, (leaseMap, currentTime) -> {
+
+            Map<String, String> leases = new HashMap<>() ;
+            leaseMap.forEach((leaseKey, lease) -> {
+
+                if (leaseKey.startsWith(keyPrefix)) leases.put(leaseKey, lease.ownerId) ;
+            }) ;
+
+            return leases ;
+        }) ;
+    }
+
+    @Override
+    public Map<String, Long> getLeaseExpireTimes(String keyPrefix) {
+
+        return update(false, (leaseMap, currentTime) -> {
+
+            Map<String, Long> leaseExpireTimes = new HashMap<>() ;
+            leaseMap.forEach((leaseKey, lease) -> {
+
+                if (leaseKey.startsWith(keyPrefix)) leaseExpireTimes.put(leaseKey, lease.expireTime) ;
+            }) ;
+
+            return leaseExpireTimes ;
+        }) ;
+    }
+
+    /**
+     * <p> To run an operation on the unexpired leases under both locks </p>
+     *
+     * @param isWrite Whether the leases are written back afterwards
+     * @param operation The operation on the leases by key and the current time
+     */
+    private <T> T update(boolean isWrite, LeaseOperation<T> operation) {
+
+        processLock.lock() ;
+        try (FileChannel leaseChannel = FileChannel.open(leasePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            // Released along with the channel
+            leaseChannel.lock() ;
+
+            long currentTime = System.currentTimeMillis() ;
+
+            Map<String, Lease> leaseMap = readLeases(leaseChannel, currentTime) ;
+
+            T result = operation.apply(leaseMap, currentTime) ;
+
+            if (isWrite) writeLeases(leaseChannel, leaseMap) ;
+
+            return result ;
+        } catch (IOException exception) {
+
+            throw new UncheckedIOException(exception) ;
+        } finally {
+            processLock.unlock() ;
+        }
+    }
+
+    private static Map<String, Lease> readLeases(FileChannel leaseChannel, long currentTime) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) leaseChannel.size()) ;
+        while (buffer.hasRemaining() && leaseChannel.read(buffer, buffer.position()) > 0) ;
+
+        Map<String, Lease> leaseMap = new LinkedHashMap<>() ;
+        for (String line : new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).split("\n")) {
+
+            String[] fields = line.split(FIELD_SEPARATOR) ;
+
+            // A line torn by a crashed writer is skipped, its lease is as good as expired
+            if (fields.length != 3) continue ;
+
+            long expireTime = parseExpireTime(fields[2]) ;
+
+            if (expireTime > currentTime) leaseMap.put(fields[0], new Lease(fields[1], expireTime)) ;
+        }
+
+        return leaseMap ;
+    }
+
+    private static long parseExpireTime(String field) {
+
+        try {
+
+            return Long.parseLong(field) ;
+        } catch (NumberFormatException exception) {
+
+            return 0 ;
+        }
+    }
+
+    private static void writeLeases(FileChannel leaseChannel, Map<String, Lease> leaseMap) throws IOException {
+
+        StringBuilder content = new StringBuilder() ;
+        leaseMap.forEach((leaseKey, lease) -> content.append(leaseKey).append(FIELD_SEPARATOR)
+                .append(lease.ownerId).append(FIELD_SEPARATOR)
+                .append(lease.expireTime).append('\n')) ;
+
+        ByteBuffer buffer = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)) ;
+
+        leaseChannel.truncate(0) ;
+        while (buffer.hasRemaining()) leaseChannel.write(buffer, buffer.position()) ;
+    }
+
+    private static void checkField(String field) {
+
+        if (field.contains(FIELD_SEPARATOR) || field.contains("\n")) throw new IllegalArgumentException("Lease keys and owner ids must not contain tabs or line breaks: " + field) ;
+    }
+
+    @FunctionalInterface
+    private interface LeaseOperation<T> {
+
+        T apply(Map<String, Lease> leaseMap, long currentTime) ;
+    }
+
+    private static class Lease {
+
+        private final String ownerId ;
+        private final long expireTime ;
+
+        Lease(String ownerId, long expireTime) {
+
+            this.ownerId = ownerId ;
+            this.expireTime = expireTime ;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package Component;
+
+import behavior.ConcurrencyLimit;
+
+/**
+ * <b> Latency Gradient Concurrency Limit Class </b>
+ *
+ * <p> Judges the executions in windows of one limit worth of samples and compares the average execution time
+ * of a window with the lowest one seen, the latency without queueing. While the average stays within the
+ * tolerance of that baseline the limit grows by its square root, the headroom for queueing, and as soon as
+ * the latency climbs the limit shrinks in proportion. Reacts to latency only, failed executions are not
+ * sampled as a fast failure would otherwise look like spare capacity. </p>
+ *
+ * <p> A baseline taken under load would let the limit ratchet up, so every now and then the limit drops to a
+ * few permits and the baseline is learnt again once the executions in flight drained. All jobs of a trigger
+ * feed the same average, so it suits triggers whose jobs have comparable execution times. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/20
+ */
+public class GradientConcurrencyLimit implements ConcurrencyLimit {
+
+    private static final double RTT_TOLERANCE = 1.5 ;
+    private static final double MIN_GRADIENT = 0.5 ;
+    private static final double SMOOTHING = 0.5 ;
+    private static final int PROBE_WINDOW_INTERVAL = 100 ;
+    private static final int PROBE_LIMIT = 4 ;
+
+    private final int minLimit ;
+    private final int maxLimit ;
+    private double limit ;
+    private double noLoadRttNanos ;
+    private int windowsUntilProbe = PROBE_WINDOW_INTERVAL ;
+    private int sampleCounter ;
+    private long totalRttNanos ;
+    private int maxInFlight ;
+
+    /**
+     * @param initialLimit The limit before the first window
+     * @param maxLimit The upper bound of the limit
+     */
+    public GradientConcurrencyLimit(int initialLimit, int maxLimit) {
+
+        if (initialLimit <= 0 || maxLimit < initialLimit) throw new IllegalArgumentException("Invalid limit range: " + initialLimit + " - " + maxLimit) ;
+
+        this.minLimit = 1 ;
+        this.maxLimit = maxLimit ;
+        this.limit = initialLimit ;
+    }
+
+    @Override
+    public int getLimit() {
+
+        return (int) limit ;
+    }
+
+    @Override
+    public int getMaxLimit() {
+
+        return maxLimit ;
+    }
+
+    @Override
+    public int onSample(long rttNanos, int inFlight, boolean dropped) {
+
+        if (dropped) return (int) limit ;
+
+        sampleCounter ++ ;
+        totalRttNanos += rttNanos ;
+        maxInFlight = Math.max(maxInFlight, inFlight) ;
+
+        if (sampleCounter < limit) return (int) limit ;
+
+        // Kept above zero so that the ratio to the baseline is always defined
+        double rttAverageNanos = Math.max(1.0, (double) totalRttNanos / sampleCounter) ;
+        boolean isLimited = maxInFlight * 2 >= limit ;
+
+        sampleCounter = 0 ;
+        totalRttNanos = 0 ;
+        maxInFlight = 0 ;
+
+        if (noLoadRttNanos == 0 || rttAverageNanos < noLoadRttNanos) noLoadRttNanos = rttAverageNanos ;
+
+        if (-- windowsUntilProbe <= 0) {
+
+            windowsUntilProbe = PROBE_WINDOW_INTERVAL ;
+            noLoadRttNanos = 0 ;
+            limit = Math.max(minLimit, Math.min(limit, PROBE_LIMIT)) ;
+
+            return (int) limit ;
+        }
+
+        // Nothing was learned about a limit that is not even half used
+        if (!isLimited) return (int) limit ;
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * noLoadRttNanos / rttAverageNanos)) ;
+        double newLimit = limit * gradient + Math.sqrt(limit) ;
+
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING)) ;
+
+        return (int) limit ;
+    }
+}
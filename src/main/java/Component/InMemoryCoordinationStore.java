@@ -0,0 +1,84 @@
+package Component;
+
+import behavior.CoordinationStore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <b> In-Memory Coordination Store Class </b>
+ *
+ * <p> Leases in a concurrent map, for several cluster nodes within a single process, e.g. tests and
+ * single host deployments. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/23
+ */
+public class InMemoryCoordinationStore implements CoordinationStore {
+
+    private final Map<String, Lease> leaseMap = new ConcurrentHashMap<>() ;
+
+    @Override
+    public boolean tryAcquireLease(String leaseKey, String ownerId, long leaseTime) {
+
+        long currentTime = System.currentTimeMillis() ;
+
+        Lease lease = leaseMap.compute(leaseKey, (key, current) -> current == null || current.isExpired(currentTime) || current.ownerId.equals(ownerId)
+                ? new Lease(ownerId, currentTime + leaseTime)
+                : current) ;
+
+        return lease.ownerId.equals(ownerId) ;
+    }
+
+    @Override
+    public void releaseLease(String leaseKey, String ownerId) {
+
+        leaseMap.computeIfPresent(leaseKey, (key, current) -> current.ownerId.equals(ownerId) ? null : current) ;
+    }
+
+    @Override
+    public Map<String, String> getLeases(String keyPrefix) {
+
+        long currentTime = System.currentTimeMillis() ;
+
+        Map<String, String> leases = new HashMap<>() ;
+        leaseMap.forEach((leaseKey, lease) -> {
+
+            if (leaseKey.startsWith(keyPrefix) && !lease.isExpired(currentTime)) leases.put(leaseKey, lease.ownerId) ;
+        }) ;
+
+        return leases ;
+    }
+
+    @Override
+    public Map<String, Long> getLeaseExpireTimes(String keyPrefix) {
+
+        long currentTime = System.currentTimeMillis() ;
+
+        Map<String, Long> leaseExpireTimes = new HashMap<>() ;
+        leaseMap.forEach((leaseKey, lease) -> {
+
+            if (leaseKey.startsWith(keyPrefix) && !lease.isExpired(currentTime)) leaseExpireTimes.put(leaseKey, lease.expireTime) ;
+        }) ;
+
+        return leaseExpireTimes ;
+    }
+
+    private static class Lease {
+
+        private final String ownerId ;
+        private final long expireTime ;
+
+        Lease(String ownerId, long expireTime) {
+
+            this.ownerId = ownerId ;
+            this.expireTime = expireTime ;
+        }
+
+        boolean isExpired(long currentTime) {
+
+            return expireTime <= currentTime ;
+        }
+    }
+}
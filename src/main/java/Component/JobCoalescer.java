@@ -0,0 +1,267 @@
+package Component;
+
+import entity.EnhancedJob;
+import enumeration.CoalescingPolicyEnum;
+import enumeration.RecurrenceModeEnum;
+import enumeration.TaskStatusEnum;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <b> Keyed Job Coalescer Class </b>
+ *
+ * <p> Collapses the submissions of the same key into a single one-shot job on an enhanced trigger. A key holds
+ * at most one job at a time, a submission arriving while it is pending or running only replaces the task the
+ * job runs next, so the queued jobs and the executions are bounded by the number of distinct keys however many
+ * times a key is submitted. </p>
+ *
+ * <p> A debounced job woken up before its key went quiet does not run, it is scheduled again for the rest of
+ * the quiet time instead of being moved in the queue. A task that fails is retried on the retry settings of the
+ * coalescer, a newer submission waits for the retries to end. </p>
+ *
+ * <p> The coalescing key is the job key of the jobs, so they share the statistics and the rate limit of the key
+ * and a cluster runs them on the node owning the key only. The other nodes drop the submissions of the key, their
+ * owner received and runs them. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/27
+ */
+@Slf4j
+public class JobCoalescer {
+
+    private final EnhancedTrigger enhancedTrigger ;
+    private final CoalescingPolicyEnum coalescingPolicy ;
+    private final long delayNanos ;
+    private final int priorityLevel ;
+    private final int maxRetryCounter ;
+    private final ConcurrentHashMap<String, KeyState> keyStateMap = new ConcurrentHashMap<>() ;
+    private final LongAdder submittedJobCounter = new LongAdder() ;
+    private final LongAdder coalescedJobCounter = new LongAdder() ;
+    private final LongAdder executedJobCounter = new LongAdder() ;
+
+    /**
+     * @param enhancedTrigger The trigger running the jobs
+     * @param coalescingPolicy How the submissions of a key are collapsed
+     * @param delay The debounce quiet time, the throttle interval or the replace delay in milliseconds
+     * @param priorityLevel The priority level of the jobs
+     * @param maxRetryCounter The retries of a failed task
+     */
+    public JobCoalescer(EnhancedTrigger enhancedTrigger, CoalescingPolicyEnum coalescingPolicy, long delay, int priorityLevel, int maxRetryCounter) {
+
+        if (delay < 0) throw new IllegalArgumentException("Coalescing delay must not be negative: " + delay) ;
+
+        this.enhancedTrigger = enhancedTrigger ;
+        this.coalescingPolicy = coalescingPolicy ;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(delay) ;
+        this.priorityLevel = priorityLevel ;
+        this.maxRetryCounter = maxRetryCounter ;
+    }
+
+    /**
+     * @param key The key of the logical work, submissions of equal keys are coalesced
+     * @param task The task to run for the key, replaces the task of a pending submission
+     * @return true if a job was scheduled, false if the submission was merged into the pending job of the key
+     */
+    public boolean submit(String key, Runnable task) {
+
+        submittedJobCounter.increment() ;
+
+        while (true) {
+
+            KeyState keyState = keyStateMap.computeIfAbsent(key, ignored -> new KeyState()) ;
+
+            synchronized (keyState) {
+
+                // Lost the race against the job of the key ending, the next round creates a fresh state
+                if (keyState.isRetired) continue ;
+
+                keyState.pendingTask = task ;
+                keyState.lastSubmitNanoTime = System.nanoTime() ;
+
+                if (keyState.isActive) {
+
+                    coalescedJobCounter.increment() ;
+
+                    return false ;
+                }
+
+                keyState.isActive = true ;
+            }
+
+            // A quiet key is not throttled, its first run leads the interval
+            schedule(key, keyState, coalescingPolicy == CoalescingPolicyEnum.THROTTLE ? 0 : delayNanos) ;
+
+            return true ;
+        }
+    }
+
+    private void schedule(String key, KeyState keyState, long delayNanos) {
+
+        // Rounded up, so a debounced job never wakes up a moment before the quiet time ends
+        long delay = TimeUnit.NANOSECONDS.toMillis(delayNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) ;
+
+        EnhancedJob enhancedJob = new EnhancedJob(() -> execute(keyState), delay, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setJobKey(key) ;
+        enhancedJob.setRecurrenceMode(RecurrenceModeEnum.ONE_SHOT) ;
+        enhancedJob.setCompletionListener(taskStatus -> onJobFinished(key, keyState, taskStatus)) ;
+
+        try {
+
+            enhancedTrigger.setToJobQueue(enhancedJob) ;
+        } catch (RuntimeException exception) {
+
+            retire(key, keyState) ;
+
+            throw exception ;
+        }
+    }
+
+    private void execute(KeyState keyState) {
+
+        Runnable task ;
+
+        synchronized (keyState) {
+
+            keyState.isStarted = true ;
+
+            // A retry runs the task that failed again, not a newer submission
+            if (keyState.runningTask == null) {
+
+                if (coalescingPolicy == CoalescingPolicyEnum.DEBOUNCE) {
+
+                    long remainingQuietNanos = keyState.lastSubmitNanoTime + delayNanos - System.nanoTime() ;
+
+                    if (remainingQuietNanos > 0) {
+
+                        keyState.rearmDelayNanos = remainingQuietNanos ;
+
+                        return ;
+                    }
+                }
+
+                keyState.runningTask = keyState.pendingTask ;
+                keyState.pendingTask = null ;
+            }
+
+            task = keyState.runningTask ;
+        }
+
+        // A throttle cool-down without any submission in the meantime
+        if (task == null) return ;
+
+        executedJobCounter.increment() ;
+
+        task.run() ;
+    }
+
+    private void onJobFinished(String key, KeyState keyState, TaskStatusEnum taskStatus) {
+
+        long nextDelayNanos ;
+
+        synchronized (keyState) {
+
+            boolean hasRun = keyState.runningTask != null ;
+            boolean isStarted = keyState.isStarted ;
+            keyState.runningTask = null ;
+            keyState.isStarted = false ;
+
+            if (taskStatus == TaskStatusEnum.CANCELLED) {
+
+                // E.g. shed by a bounded trigger, the pending submission is dropped along with the job
+                nextDelayNanos = -1 ;
+            } else if (!isStarted) {
+
+                // Skipped by a cluster node not owning the key, the owner runs the submissions of the key
+                nextDelayNanos = -1 ;
+            } else if (keyState.rearmDelayNanos > 0) {
+
+                nextDelayNanos = keyState.rearmDelayNanos ;
+                keyState.rearmDelayNanos = 0 ;
+            } else if (keyState.pendingTask != null) {
+
+                nextDelayNanos = coalescingPolicy == CoalescingPolicyEnum.DEBOUNCE
+                        ? Math.max(keyState.lastSubmitNanoTime + delayNanos - System.nanoTime(), 0)
+                        : delayNanos ;
+            } else if (coalescingPolicy == CoalescingPolicyEnum.THROTTLE && hasRun) {
+
+                // The key stays throttled for one interval after its run, even without a submission yet
+                nextDelayNanos = delayNanos ;
+            } else {
+
+                nextDelayNanos = -1 ;
+            }
+
+            // Retired under the same lock, so no submission can merge into the job ending here
+            if (nextDelayNanos < 0) keyState.isRetired = true ;
+        }
+
+        if (nextDelayNanos < 0) {
+
+            keyStateMap.remove(key, keyState) ;
+
+            return ;
+        }
+
+        try {
+
+            schedule(key, keyState, nextDelayNanos) ;
+        } catch (RuntimeException exception) {
+
+            log.error("The coalesced job of key {} could not be scheduled again: {}", key, exception.getMessage()) ;
+        }
+    }
+
+    private void retire(String key, KeyState keyState) {
+
+        synchronized (keyState) {
+
+            keyState.isRetired = true ;
+        }
+
+        keyStateMap.remove(key, keyState) ;
+    }
+
+    public long getSubmittedJobCounter() {
+
+        return submittedJobCounter.sum() ;
+    }
+
+    /**
+     * @return The number of submissions merged into a pending job instead of adding one
+     */
+    public long getCoalescedJobCounter() {
+
+        return coalescedJobCounter.sum() ;
+    }
+
+    public long getExecutedJobCounter() {
+
+        return executedJobCounter.sum() ;
+    }
+
+    /**
+     * @return The number of keys holding a job, at most one queued job each
+     */
+    public int getActiveKeyCounter() {
+
+        return keyStateMap.size() ;
+    }
+
+    private static class KeyState {
+
+        // Latest submitted task not started yet
+        private Runnable pendingTask ;
+        // Task taken by the current job, kept across its retries
+        private Runnable runningTask ;
+        private long lastSubmitNanoTime ;
+        // Set when a debounced job woke up before the key went quiet
+        private long rearmDelayNanos ;
+        // Set once the current job reached its task, a job skipped for the owner of its key never does
+        private boolean isStarted ;
+        private boolean isActive ;
+        private boolean isRetired ;
+    }
+}
@@ -0,0 +1,133 @@
+package Component;
+
+import entity.EnhancedJob;
+import functionalInterface.AsyncTask;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <b> Single Job Execution Attempt Class </b>
+ *
+ * <p> Runs the task once and completes its own future, the first of the worker and the timeout timer to
+ * complete it wins. A timeout interrupts the runner only while the task body is still on it, so a pooled
+ * worker that already moved on to another job is never hit. </p>
+ *
+ * <p> An {@link AsyncTask} only occupies the worker while it starts, the execution then completes with the
+ * stage it returned. A timeout cancels the stage, which is as far as an asynchronous task can be stopped. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/11
+ */
+public class JobExecution implements Runnable {
+
+    private final EnhancedJob enhancedJob ;
+    private final CompletableFuture<Void> completion ;
+    private Thread runner ;
+    private CompletionStage<?> stage ;
+    private volatile boolean isTimedOut ;
+
+    public JobExecution(EnhancedJob enhancedJob) {
+
+        this.enhancedJob = enhancedJob ;
+        this.completion = new CompletableFuture<>() ;
+    }
+
+    @Override
+    public void run() {
+
+        synchronized (this) {
+
+            if (completion.isDone()) return ;
+
+            runner = Thread.currentThread() ;
+        }
+
+        try {
+
+            if (enhancedJob.getTask() instanceof AsyncTask asyncTask) {
+
+                follow(asyncTask.start()) ;
+            } else {
+
+                enhancedJob.getTask().run() ;
+
+                completion.complete(null) ;
+            }
+        } catch (Throwable throwable) {
+
+            completion.completeExceptionally(throwable) ;
+        } finally {
+
+            synchronized (this) {
+
+                runner = null ;
+
+                // Swallow a timeout interrupt that arrived after the task body returned
+                Thread.interrupted() ;
+            }
+        }
+    }
+
+    private void follow(CompletionStage<?> stage) {
+
+        if (stage == null) throw new NullPointerException("The asynchronous task returned no stage") ;
+
+        synchronized (this) {
+
+            this.stage = stage ;
+        }
+
+        stage.whenComplete((ignored, throwable) -> {
+
+            if (throwable == null) completion.complete(null) ;
+            // The stage cancelled by the timeout fails the execution with the timeout
+            else if (isTimedOut) completion.completeExceptionally(new TimeoutException("Task Timeout")) ;
+            else completion.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable) ;
+        }) ;
+
+        // A timeout that fired while the task was still starting could not reach the stage yet
+        if (isTimedOut && stage instanceof Future<?> future) future.cancel(true) ;
+    }
+
+    /**
+     * <p> To fail the execution with a timeout and interrupt the task if it is still running, or cancel the stage of an asynchronous task </p>
+     *
+     * @return false if the execution had already completed
+     */
+    public boolean timeout() {
+
+        CompletionStage<?> currentStage ;
+
+        synchronized (this) {
+
+            isTimedOut = true ;
+            currentStage = stage ;
+        }
+
+        // Stopped before the execution fails, so the completion listeners never see the stage still running
+        if (currentStage instanceof Future<?> future) future.cancel(true) ;
+
+        if (!completion.completeExceptionally(new TimeoutException("Task Timeout"))) return false ;
+
+        synchronized (this) {
+
+            if (runner != null) runner.interrupt() ;
+        }
+
+        return true ;
+    }
+
+    public EnhancedJob getEnhancedJob() {
+
+        return enhancedJob ;
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+
+        return completion ;
+    }
+}
@@ -0,0 +1,603 @@
+package Component;
+
+import entity.EnhancedJob;
+import entity.Job;
+import entity.JobGroup;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> Weighted Fair Job Group Dispatcher Class </b>
+ *
+ * <p> Due jobs wait here in the heap of their group until they get a permit, so a group that used up its
+ * quota never holds up the dispatcher threads or the other groups. Whenever a job arrives or a permit comes
+ * back, the waiting groups take turns by stride scheduling: each dispatch advances the pass of the group by
+ * the inverse of its weight and the group with the lowest pass goes next, so a group of weight 3 gets three
+ * permits for every permit of a group of weight 1 while both are waiting. </p>
+ *
+ * <p> Within a group the first attempts and the retries take turns the same way, the retries getting one permit
+ * for every four of the first attempts while both are waiting. Jobs failing against a broken downstream cannot
+ * crowd out the healthy jobs of their group, yet keep making progress in a group that never runs out of first
+ * attempts. </p>
+ *
+ * <p> A group or a job key may be capped by a {@link TokenBucket} on top of its permits. A group over its rate
+ * is passed over like a saturated one, a job whose key is over its rate is set aside with the other jobs of its
+ * key, so neither holds up the rest of the dispatch nor a worker. A timer comes back once the next token is due
+ * and hands the set aside jobs back to their groups in their order, as many as the key has tokens for. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/21
+ */
+public class JobGroupDispatcher {
+
+    private static final long STRIDE = 1L << 20 ;
+    private static final int FIRST_ATTEMPT_WEIGHT = 4 ;
+
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private final GroupQueue[] groupQueues ;
+    private final Map<String, GroupQueue> groupQueueMap ;
+    private final GroupQueue defaultGroupQueue ;
+    private final TaskResourceManager taskResourceManager ;
+    private final Consumer<EnhancedJob> jobLauncher ;
+    private final Comparator<? super EnhancedJob> jobComparator ;
+    private final ScheduledExecutorService wakeUpTimer ;
+    private final Map<String, TokenBucket> keyRateLimitMap ;
+    private final Map<String, RateLimitedKey> rateLimitedKeyMap ;
+    // Jobs handed back to their groups by the wake-up and not dispatched yet, their tokens are spoken for
+    private final Set<EnhancedJob> releasedJobs ;
+    private ScheduledFuture<?> wakeUpFuture ;
+    private long wakeUpNanoTime ;
+    // Pass of the group dispatched last, a group coming back from idle starts from here instead of its stale pass
+    private long virtualTime ;
+    private int queuedJobCounter ;
+    private int rateLimitedJobCounter ;
+    private boolean isDispatching ;
+
+    /**
+     * @param jobGroups The configured groups, the default group is added unless configured
+     * @param taskResourceManager The manager holding the shared limit and the quota of every group
+     * @param jobLauncher Starts the execution of a job, called with the permit already taken
+     * @param jobComparator The order of the jobs waiting within a group
+     * @param wakeUpTimer Comes back for the jobs held back by a rate limit once their next token is due
+     */
+    public JobGroupDispatcher(List<JobGroup> jobGroups, TaskResourceManager taskResourceManager, Consumer<EnhancedJob> jobLauncher,
+                              Comparator<? super EnhancedJob> jobComparator, ScheduledExecutorService wakeUpTimer) {
+
+        this.taskResourceManager = taskResourceManager ;
+        this.jobLauncher = jobLauncher ;
+        this.jobComparator = jobComparator ;
+        this.wakeUpTimer = wakeUpTimer ;
+        this.groupQueueMap = new HashMap<>() ;
+        this.keyRateLimitMap = new HashMap<>() ;
+        this.rateLimitedKeyMap = new HashMap<>() ;
+        this.releasedJobs = Collections.newSetFromMap(new IdentityHashMap<>()) ;
+
+        for (JobGroup jobGroup : jobGroups) {
+
+            if (jobGroup.getWeight() <= 0) throw new IllegalArgumentException("Job group weight must be positive: " + jobGroup) ;
+
+            taskResourceManager.addJobGroup(jobGroup) ;
+            GroupQueue groupQueue = new GroupQueue(jobGroup.getName(), jobGroup.getWeight(), jobComparator) ;
+            groupQueue.rateLimit = jobGroup.getRateLimit() ;
+
+            groupQueueMap.put(jobGroup.getName(), groupQueue) ;
+        }
+
+        this.defaultGroupQueue = groupQueueMap.computeIfAbsent(JobGroup.DEFAULT_GROUP_NAME, name -> new GroupQueue(name, 1, jobComparator)) ;
+        this.groupQueues = groupQueueMap.values().toArray(new GroupQueue[0]) ;
+    }
+
+    /**
+     * <p> To queue a due job in its group and start whatever the free permits allow </p>
+     */
+    public void submit(EnhancedJob enhancedJob) {
+
+        lock.lock() ;
+        try {
+
+            RateLimitedKey rateLimitedKey = enhancedJob.getJobKey() != null ? rateLimitedKeyMap.get(enhancedJob.getJobKey()) : null ;
+
+            // Behind the jobs its key already holds back, so the key keeps its order while over its rate
+            if (rateLimitedKey != null && keyRateLimitMap.containsKey(enhancedJob.getJobKey())) {
+
+                rateLimitedKey.jobHeap.offer(enhancedJob) ;
+                rateLimitedJobCounter ++ ;
+
+                return ;
+            }
+
+            offer(enhancedJob) ;
+
+            dispatch() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    private void offer(EnhancedJob enhancedJob) {
+
+        GroupQueue groupQueue = getGroupQueue(enhancedJob.getJobGroup()) ;
+
+        if (groupQueue.isEmpty()) groupQueue.pass = Math.max(groupQueue.pass, virtualTime) ;
+
+        groupQueue.offer(enhancedJob) ;
+        queuedJobCounter ++ ;
+    }
+
+    private GroupQueue getGroupQueue(String jobGroup) {
+
+        return jobGroup != null ? groupQueueMap.getOrDefault(jobGroup, defaultGroupQueue) : defaultGroupQueue ;
+    }
+
+    /**
+     * <p> To hand the permits given back by completed executions to the waiting groups </p>
+     */
+    public void onTaskResourceReleased() {
+
+        lock.lock() ;
+        try {
+
+            dispatch() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    private void dispatch() {
+
+        // A launch failing within the loop hands its permit back to the running loop instead of a nested one
+        if (isDispatching) return ;
+
+        isDispatching = true ;
+        try {
+
+            while (queuedJobCounter > 0) {
+
+                long currentNanoTime = System.nanoTime() ;
+
+                GroupQueue next = null ;
+                for (GroupQueue groupQueue : groupQueues) {
+
+                    if (groupQueue.isEmpty() || (next != null && groupQueue.pass >= next.pass)) continue ;
+
+                    if (taskResourceManager.isJobGroupSaturated(groupQueue.name)) continue ;
+
+                    // A group over its rate keeps its jobs until its next token, the wake-up comes back for them
+                    if (groupQueue.rateLimit != null && groupQueue.rateLimit.getWaitNanos(currentNanoTime) > 0) continue ;
+
+                    next = groupQueue ;
+                }
+
+                if (next == null) break ;
+
+                JobHeap<EnhancedJob> jobHeap = next.getNextJobHeap() ;
+                EnhancedJob enhancedJob = jobHeap.peek() ;
+
+                if (enhancedJob.isCancelled()) {
+
+                    jobHeap.poll() ;
+                    queuedJobCounter -- ;
+                    onReleasedJobLeft(enhancedJob) ;
+
+                    continue ;
+                }
+
+                TokenBucket keyRateLimit = enhancedJob.getJobKey() != null ? keyRateLimitMap.get(enhancedJob.getJobKey()) : null ;
+
+                if (keyRateLimit != null && keyRateLimit.getWaitNanos(currentNanoTime) > 0) {
+
+                    jobHeap.poll() ;
+                    queuedJobCounter -- ;
+                    onReleasedJobLeft(enhancedJob) ;
+
+                    setAside(enhancedJob) ;
+
+                    continue ;
+                }
+
+                // Waiting starts once the job is due, the dispatcher threads hand it over right then
+                if (!taskResourceManager.tryAcquireTaskResource(next.name, enhancedJob.getStartNanoTime())) break ;
+
+                jobHeap.poll() ;
+                queuedJobCounter -- ;
+                onReleasedJobLeft(enhancedJob) ;
+
+                if (next.rateLimit != null) next.rateLimit.acquire(currentNanoTime) ;
+                if (keyRateLimit != null) keyRateLimit.acquire(currentNanoTime) ;
+
+                virtualTime = next.pass ;
+                next.pass += next.stride ;
+                next.onDispatched(jobHeap) ;
+
+                jobLauncher.accept(enhancedJob) ;
+            }
+
+            scheduleWakeUp() ;
+        } finally {
+            isDispatching = false ;
+        }
+    }
+
+    private void setAside(EnhancedJob enhancedJob) {
+
+        rateLimitedKeyMap.computeIfAbsent(enhancedJob.getJobKey(), ignored -> new RateLimitedKey(jobComparator)).jobHeap.offer(enhancedJob) ;
+        rateLimitedJobCounter ++ ;
+    }
+
+    // A job handed back by the wake-up left its group, the token it was handed back for is free again
+    private void onReleasedJobLeft(EnhancedJob enhancedJob) {
+
+        if (releasedJobs.isEmpty() || !releasedJobs.remove(enhancedJob)) return ;
+
+        RateLimitedKey rateLimitedKey = rateLimitedKeyMap.get(enhancedJob.getJobKey()) ;
+
+        if (rateLimitedKey == null) return ;
+
+        rateLimitedKey.releasedJobCounter -- ;
+
+        if (rateLimitedKey.isDrained()) rateLimitedKeyMap.remove(enhancedJob.getJobKey()) ;
+    }
+
+    /**
+     * <p> To hand the jobs set aside back to their groups, as many per key as the key has tokens for that are not
+     * spoken for by jobs handed back before </p>
+     */
+    private void releaseRateLimitedJobs(long currentNanoTime) {
+
+        Iterator<Map.Entry<String, RateLimitedKey>> iterator = rateLimitedKeyMap.entrySet().iterator() ;
+        while (iterator.hasNext()) {
+
+            Map.Entry<String, RateLimitedKey> entry = iterator.next() ;
+            RateLimitedKey rateLimitedKey = entry.getValue() ;
+            TokenBucket keyRateLimit = keyRateLimitMap.get(entry.getKey()) ;
+
+            // A key without a limit anymore hands back all of its jobs
+            int releaseCounter = keyRateLimit != null
+                    ? keyRateLimit.getAvailableTokens(currentNanoTime) - rateLimitedKey.releasedJobCounter
+                    : rateLimitedKey.jobHeap.size() ;
+
+            for (int i = 0 ; i < releaseCounter && !rateLimitedKey.jobHeap.isEmpty() ; i ++) {
+
+                EnhancedJob enhancedJob = rateLimitedKey.jobHeap.poll() ;
+                rateLimitedJobCounter -- ;
+
+                if (enhancedJob.isCancelled()) continue ;
+
+                offer(enhancedJob) ;
+
+                if (keyRateLimit != null) {
+
+                    releasedJobs.add(enhancedJob) ;
+                    rateLimitedKey.releasedJobCounter ++ ;
+                }
+            }
+
+            if (rateLimitedKey.isDrained()) iterator.remove() ;
+        }
+    }
+
+    private void scheduleWakeUp() {
+
+        long currentNanoTime = System.nanoTime() ;
+        long wakeUpDelayNanos = Long.MAX_VALUE ;
+
+        // A group with a token left is only short of permits, a completing execution dispatches it
+        for (GroupQueue groupQueue : groupQueues) {
+
+            if (groupQueue.rateLimit == null || groupQueue.isEmpty()) continue ;
+
+            long waitNanos = groupQueue.rateLimit.getWaitNanos(currentNanoTime) ;
+
+            if (waitNanos > 0) wakeUpDelayNanos = Math.min(wakeUpDelayNanos, waitNanos) ;
+        }
+
+        // A key with jobs handed back waits for them to leave their groups first
+        for (Map.Entry<String, RateLimitedKey> entry : rateLimitedKeyMap.entrySet()) {
+
+            if (entry.getValue().releasedJobCounter > 0 || entry.getValue().jobHeap.isEmpty()) continue ;
+
+            TokenBucket keyRateLimit = keyRateLimitMap.get(entry.getKey()) ;
+
+            wakeUpDelayNanos = Math.min(wakeUpDelayNanos, keyRateLimit != null ? keyRateLimit.getWaitNanos(currentNanoTime) : 0) ;
+        }
+
+        if (wakeUpDelayNanos == Long.MAX_VALUE) return ;
+
+        // An earlier wake-up is already on its way
+        if (wakeUpFuture != null && currentNanoTime + wakeUpDelayNanos - wakeUpNanoTime >= 0) return ;
+
+        if (wakeUpFuture != null) wakeUpFuture.cancel(false) ;
+
+        try {
+
+            wakeUpFuture = wakeUpTimer.schedule(this::wakeUp, wakeUpDelayNanos, TimeUnit.NANOSECONDS) ;
+            wakeUpNanoTime = currentNanoTime + wakeUpDelayNanos ;
+        } catch (RejectedExecutionException exception) {
+
+            // The trigger is shutting down, the held back jobs are dropped with the rest of the queue
+            wakeUpFuture = null ;
+        }
+    }
+
+    private void wakeUp() {
+
+        lock.lock() ;
+        try {
+
+            wakeUpFuture = null ;
+
+            releaseRateLimitedJobs(System.nanoTime()) ;
+
+            dispatch() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * <p> To cap the dispatch rate of the jobs of a key at runtime, replaces the current limit of the key </p>
+     *
+     * @param jobKey The key of the jobs, see {@link EnhancedJob#setJobKey(String)}
+     * @param permitsPerSecond The steady rate of the jobs of the key, 0 holds them all back
+     * @param burst The jobs of the key allowed at once after a quiet period
+     */
+    public void setKeyRateLimit(String jobKey, double permitsPerSecond, int burst) {
+
+        lock.lock() ;
+        try {
+
+            TokenBucket keyRateLimit = keyRateLimitMap.get(jobKey) ;
+
+            if (keyRateLimit != null) keyRateLimit.setRate(permitsPerSecond, burst) ;
+            else keyRateLimitMap.put(jobKey, new TokenBucket(permitsPerSecond, burst)) ;
+
+            onRateLimitChanged() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * <p> To lift the rate limit of a key, the jobs it held back go back to their groups at once </p>
+     */
+    public void removeKeyRateLimit(String jobKey) {
+
+        lock.lock() ;
+        try {
+
+            if (keyRateLimitMap.remove(jobKey) == null) return ;
+
+            onRateLimitChanged() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    public TokenBucket getKeyRateLimit(String jobKey) {
+
+        lock.lock() ;
+        try {
+
+            return keyRateLimitMap.get(jobKey) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * <p> To cap the dispatch rate of a configured group at runtime, replaces the current limit of the group </p>
+     *
+     * @param jobGroup The name of the job group, the default group for jobs without a group
+     * @param permitsPerSecond The steady rate of the jobs of the group, 0 holds them all back
+     * @param burst The jobs of the group allowed at once after a quiet period
+     */
+    public void setJobGroupRateLimit(String jobGroup, double permitsPerSecond, int burst) {
+
+        GroupQueue groupQueue = groupQueueMap.get(jobGroup) ;
+
+        if (groupQueue == null) throw new IllegalArgumentException("Unknown job group: " + jobGroup) ;
+
+        lock.lock() ;
+        try {
+
+            if (groupQueue.rateLimit != null) groupQueue.rateLimit.setRate(permitsPerSecond, burst) ;
+            else groupQueue.rateLimit = new TokenBucket(permitsPerSecond, burst) ;
+
+            onRateLimitChanged() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    public void removeJobGroupRateLimit(String jobGroup) {
+
+        GroupQueue groupQueue = groupQueueMap.get(jobGroup) ;
+
+        if (groupQueue == null) throw new IllegalArgumentException("Unknown job group: " + jobGroup) ;
+
+        lock.lock() ;
+        try {
+
+            groupQueue.rateLimit = null ;
+
+            onRateLimitChanged() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    public TokenBucket getJobGroupRateLimit(String jobGroup) {
+
+        GroupQueue groupQueue = groupQueueMap.get(jobGroup) ;
+
+        if (groupQueue == null) return null ;
+
+        lock.lock() ;
+        try {
+
+            return groupQueue.rateLimit ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    // The pending wake-up was planned for the old rate, plan it over
+    private void onRateLimitChanged() {
+
+        if (wakeUpFuture != null) wakeUpFuture.cancel(false) ;
+        wakeUpFuture = null ;
+
+        releaseRateLimitedJobs(System.nanoTime()) ;
+
+        dispatch() ;
+    }
+
+    /**
+     * <p> To sweep every cancelled job out of the group heaps </p>
+     *
+     * @return The number of removed jobs
+     */
+    public int purgeCancelled() {
+
+        lock.lock() ;
+        try {
+
+            int removedCounter = 0 ;
+            for (GroupQueue groupQueue : groupQueues) {
+
+                removedCounter += groupQueue.jobHeap.removeIf(Job::isCancelled) + groupQueue.retryJobHeap.removeIf(Job::isCancelled) ;
+            }
+
+            queuedJobCounter -= removedCounter ;
+
+            releasedJobs.stream().filter(Job::isCancelled).toList().forEach(this::onReleasedJobLeft) ;
+
+            int rateLimitedRemovedCounter = 0 ;
+            for (RateLimitedKey rateLimitedKey : rateLimitedKeyMap.values()) rateLimitedRemovedCounter += rateLimitedKey.jobHeap.removeIf(Job::isCancelled) ;
+
+            rateLimitedJobCounter -= rateLimitedRemovedCounter ;
+            rateLimitedKeyMap.values().removeIf(RateLimitedKey::isDrained) ;
+
+            // A key whose handed back jobs were all cancelled is due for a wake-up again
+            scheduleWakeUp() ;
+
+            return removedCounter + rateLimitedRemovedCounter ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * @return The number of due jobs waiting for a permit or held back by the rate limit of their key
+     */
+    public int size() {
+
+        lock.lock() ;
+        try {
+
+            return queuedJobCounter + rateLimitedJobCounter ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * @return The number of due jobs held back by the rate limit of their key
+     */
+    public int getRateLimitedJobCounter() {
+
+        lock.lock() ;
+        try {
+
+            return rateLimitedJobCounter ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    private static class GroupQueue {
+
+        private final String name ;
+        private final long stride ;
+        private final JobHeap<EnhancedJob> jobHeap ;
+        private final JobHeap<EnhancedJob> retryJobHeap ;
+        private long pass ;
+        // Passes of the two lanes within the group, stride scheduled like the groups themselves
+        private long jobPass ;
+        private long retryPass ;
+        private TokenBucket rateLimit ;
+
+        GroupQueue(String name, int weight, Comparator<? super EnhancedJob> jobComparator) {
+
+            this.name = name ;
+            this.stride = STRIDE / weight ;
+            this.jobHeap = new JobHeap<>(jobComparator) ;
+            this.retryJobHeap = new JobHeap<>(jobComparator) ;
+        }
+
+        boolean isEmpty() {
+
+            return jobHeap.isEmpty() && retryJobHeap.isEmpty() ;
+        }
+
+        void offer(EnhancedJob enhancedJob) {
+
+            // A lane coming back from idle starts level with the other one instead of from its stale pass
+            if (enhancedJob.getRetryCounter() > 0) {
+
+                if (retryJobHeap.isEmpty()) retryPass = Math.max(retryPass, jobPass) ;
+
+                retryJobHeap.offer(enhancedJob) ;
+            } else {
+
+                if (jobHeap.isEmpty()) jobPass = Math.max(jobPass, retryPass) ;
+
+                jobHeap.offer(enhancedJob) ;
+            }
+        }
+
+        JobHeap<EnhancedJob> getNextJobHeap() {
+
+            if (retryJobHeap.isEmpty()) return jobHeap ;
+            if (jobHeap.isEmpty()) return retryJobHeap ;
+
+            return jobPass <= retryPass ? jobHeap : retryJobHeap ;
+        }
+
+        void onDispatched(JobHeap<EnhancedJob> dispatchedJobHeap) {
+
+            if (dispatchedJobHeap == jobHeap) jobPass += STRIDE / FIRST_ATTEMPT_WEIGHT ;
+            else retryPass += STRIDE ;
+        }
+    }
+
+    private static class RateLimitedKey {
+
+        private final JobHeap<EnhancedJob> jobHeap ;
+        // Jobs of the key handed back to their groups and not dispatched yet
+        private int releasedJobCounter ;
+
+        RateLimitedKey(Comparator<? super EnhancedJob> jobComparator) {
+
+            this.jobHeap = new JobHeap<>(jobComparator) ;
+        }
+
+        boolean isDrained() {
+
+            return jobHeap.isEmpty() && releasedJobCounter == 0 ;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package Component;
+
+import entity.Job;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * <b> Array Backed Binary Job Heap Class </b>
+ *
+ * <p> Plain binary heap shared by the job queues, which guard it with their own locks. Unlike
+ * {@link java.util.PriorityQueue} it can bulk load a batch into a non-empty heap in linear time. </p>
+ *
+ * <p> Not thread-safe. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/12
+ */
+public class JobHeap<T extends Job> {
+
+    private static final int INITIAL_CAPACITY = 16 ;
+
+    private final Comparator<? super T> comparator ;
+    private Job[] heap ;
+    private int size ;
+
+    public JobHeap(Comparator<? super T> comparator) {
+
+        this.comparator = comparator ;
+        this.heap = new Job[INITIAL_CAPACITY] ;
+    }
+
+    public void offer(T job) {
+
+        ensureCapacity(size + 1) ;
+
+        siftUp(size ++, job) ;
+    }
+
+    /**
+     * <p> To add a whole batch, a batch at least as large as the heap is appended and heapified in O(n),
+     * a smaller one is sifted in one by one </p>
+     *
+     * @param jobs The jobs to be added
+     */
+    public void offerAll(Collection<? extends T> jobs) {
+
+        if (jobs.isEmpty()) return ;
+
+        ensureCapacity(size + jobs.size()) ;
+
+        if (jobs.size() < size) {
+
+            for (T job : jobs) siftUp(size ++, job) ;
+
+            return ;
+        }
+
+        for (T job : jobs) heap[size ++] = job ;
+
+        heapify() ;
+    }
+
+    public T peek() {
+
+        return size == 0 ? null : jobAt(0) ;
+    }
+
+    public T poll() {
+
+        if (size == 0) return null ;
+
+        T head = jobAt(0) ;
+        T last = jobAt(-- size) ;
+        heap[size] = null ;
+
+        if (size > 0) siftDown(0, last) ;
+
+        return head ;
+    }
+
+    /**
+     * <p> To remove every matching job in one pass, the survivors are compacted and heapified in O(n) </p>
+     *
+     * @param filter The predicate of the jobs to be removed
+     * @return The number of removed jobs
+     */
+    public int removeIf(Predicate<? super T> filter) {
+
+        int survivorCounter = 0 ;
+        for (int i = 0 ; i < size ; i ++) {
+
+            T job = jobAt(i) ;
+
+            if (!filter.test(job)) heap[survivorCounter ++] = job ;
+        }
+
+        int removedCounter = size - survivorCounter ;
+
+        if (removedCounter == 0) return 0 ;
+
+        Arrays.fill(heap, survivorCounter, size, null) ;
+        size = survivorCounter ;
+
+        heapify() ;
+
+        return removedCounter ;
+    }
+
+    public int size() {
+
+        return size ;
+    }
+
+    public boolean isEmpty() {
+
+        return size == 0 ;
+    }
+
+    private void heapify() {
+
+        for (int i = (size >>> 1) - 1 ; i >= 0 ; i --) siftDown(i, jobAt(i)) ;
+    }
+
+    private void siftUp(int index, T job) {
+
+        while (index > 0) {
+
+            int parentIndex = (index - 1) >>> 1 ;
+            T parent = jobAt(parentIndex) ;
+
+            if (comparator.compare(job, parent) >= 0) break ;
+
+            heap[index] = parent ;
+            index = parentIndex ;
+        }
+
+        heap[index] = job ;
+    }
+
+    private void siftDown(int index, T job) {
+
+        int half = size >>> 1 ;
+
+        while (index < half) {
+
+            int childIndex = (index << 1) + 1 ;
+            T child = jobAt(childIndex) ;
+            int rightIndex = childIndex + 1 ;
+
+            if (rightIndex < size && comparator.compare(child, jobAt(rightIndex)) > 0) child = jobAt(childIndex = rightIndex) ;
+
+            if (comparator.compare(job, child) <= 0) break ;
+
+            heap[index] = child ;
+            index = childIndex ;
+        }
+
+        heap[index] = job ;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+
+        if (minCapacity > heap.length) heap = Arrays.copyOf(heap, Math.max(minCapacity, heap.length << 1)) ;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T jobAt(int index) {
+
+        return (T) heap[index] ;
+    }
+}
@@ -0,0 +1,555 @@
+package Component;
+
+import behavior.JobStore;
+import entity.DurableJobRecord;
+import entity.EnhancedJob;
+import enumeration.JournalEventEnum;
+import enumeration.MisfirePolicyEnum;
+import enumeration.RecurrenceModeEnum;
+import lombok.extern.slf4j.Slf4j;
+import util.CronExpression;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * <b> Memory-Mapped Journal Job Store Class </b>
+ *
+ * <p> Every event is appended to a memory-mapped journal file, so a write is a few buffer puts without
+ * any system call. Once the journal is full, or whenever {@link #compact()} is called, the live jobs are
+ * written into a new snapshot and the journal starts over. Recovery maps the snapshot and replays the
+ * journal tail behind it. </p>
+ *
+ * <p> Every frame is {@code length, CRC32C, payload} and followed by a zero length, a torn or stale frame
+ * ends the replay. Snapshot and journal carry a generation, a journal older than the snapshot is ignored.
+ * Mapped writes survive a crash of the process, the page cache is only forced on compaction and close. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/17
+ */
+@Slf4j
+public class MappedJournalJobStore implements JobStore {
+
+    private static final String JOURNAL_FILE_NAME = "journal.dat" ;
+    private static final String SNAPSHOT_FILE_NAME = "snapshot.dat" ;
+    private static final String SNAPSHOT_TEMP_FILE_NAME = "snapshot.dat.tmp" ;
+
+    private static final int JOURNAL_MAGIC = 0x4A524E4C ;
+    private static final int SNAPSHOT_MAGIC = 0x534E4150 ;
+    // Magic and generation, the snapshot adds its record counter
+    private static final int JOURNAL_HEADER_SIZE = Integer.BYTES + Long.BYTES ;
+    // Payload length and checksum
+    private static final int FRAME_HEADER_SIZE = Integer.BYTES * 2 ;
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE ;
+    private static final int MAX_PAYLOAD_SIZE = 1 + Long.BYTES * 5 + Integer.BYTES * 3 + (Short.BYTES + MAX_STRING_BYTES) * 5 + 2 ;
+    private static final RecurrenceModeEnum[] RECURRENCE_MODES = RecurrenceModeEnum.values() ;
+    private static final MisfirePolicyEnum[] MISFIRE_POLICIES = MisfirePolicyEnum.values() ;
+    private static final int MIN_JOURNAL_CAPACITY = JOURNAL_HEADER_SIZE + FRAME_HEADER_SIZE + MAX_PAYLOAD_SIZE + Integer.BYTES ;
+    private static final int DEFAULT_JOURNAL_CAPACITY = 64 * 1024 * 1024 ;
+    private static final int SNAPSHOT_CHUNK_SIZE = 1024 * 1024 ;
+
+    private final Path journalPath ;
+    private final Path snapshotPath ;
+    private final Path snapshotTempPath ;
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private Map<Long, DurableJobRecord> durableJobRecordMap = new HashMap<>() ;
+    private final ByteBuffer payloadBuffer = ByteBuffer.allocate(MAX_PAYLOAD_SIZE) ;
+    private final CRC32C checksum = new CRC32C() ;
+    private FileChannel journalChannel ;
+    private MappedByteBuffer journalBuffer ;
+    private long generation ;
+    private long nextJobId = 1 ;
+    private boolean isClosed ;
+    private String lastTaskName ;
+    private byte[] lastTaskNameBytes ;
+
+    public MappedJournalJobStore(Path directory) {
+
+        this(directory, DEFAULT_JOURNAL_CAPACITY) ;
+    }
+
+    /**
+     * @param directory The directory holding the journal and snapshot files, created if missing
+     * @param journalCapacity The size of the mapped journal in bytes, a full journal triggers a compaction
+     */
+    public MappedJournalJobStore(Path directory, int journalCapacity) {
+
+        if (journalCapacity < MIN_JOURNAL_CAPACITY) throw new IllegalArgumentException("Journal capacity must be at least " + MIN_JOURNAL_CAPACITY + ": " + journalCapacity) ;
+
+        this.journalPath = directory.resolve(JOURNAL_FILE_NAME) ;
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE_NAME) ;
+        this.snapshotTempPath = directory.resolve(SNAPSHOT_TEMP_FILE_NAME) ;
+
+        long loadStartNanoTime = System.nanoTime() ;
+
+        try {
+
+            Files.createDirectories(directory) ;
+
+            this.generation = loadSnapshot() ;
+            openJournal(journalCapacity) ;
+        } catch (IOException exception) {
+
+            throw new UncheckedIOException(exception) ;
+        }
+
+        log.info("The Job Store loaded {} durable jobs from {} in {} ms",
+                durableJobRecordMap.size(), directory, (System.nanoTime() - loadStartNanoTime) / 1_000_000) ;
+    }
+
+    private long loadSnapshot() throws IOException {
+
+        if (!Files.exists(snapshotPath)) return 0 ;
+
+        try (FileChannel snapshotChannel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+
+            MappedByteBuffer snapshotBuffer = snapshotChannel.map(FileChannel.MapMode.READ_ONLY, 0, snapshotChannel.size()) ;
+
+            if (snapshotBuffer.remaining() < JOURNAL_HEADER_SIZE + Integer.BYTES || snapshotBuffer.getInt() != SNAPSHOT_MAGIC) {
+
+                throw new IOException("Corrupted job store snapshot: " + snapshotPath) ;
+            }
+
+            long snapshotGeneration = snapshotBuffer.getLong() ;
+            int recordCounter = snapshotBuffer.getInt() ;
+
+            // Sized up front, a million records would otherwise rehash the map twenty times over
+            durableJobRecordMap = HashMap.newHashMap(recordCounter) ;
+
+            // Snapshots are moved into place only once complete, a short one is not a torn write
+            if (replayFrames(snapshotBuffer) != recordCounter) throw new IOException("Truncated job store snapshot: " + snapshotPath) ;
+
+            return snapshotGeneration ;
+        }
+    }
+
+    private void openJournal(int journalCapacity) throws IOException {
+
+        journalChannel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE) ;
+        journalBuffer = journalChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(journalCapacity, journalChannel.size())) ;
+
+        if (journalBuffer.getInt(0) == JOURNAL_MAGIC && journalBuffer.getLong(Integer.BYTES) == generation) {
+
+            journalBuffer.position(JOURNAL_HEADER_SIZE) ;
+
+            int replayedCounter = replayFrames(journalBuffer) ;
+
+            // Overwrite whatever follows the last intact frame
+            if (journalBuffer.remaining() >= Integer.BYTES) journalBuffer.putInt(journalBuffer.position(), 0) ;
+
+            log.info("The Job Store replayed {} journal events", replayedCounter) ;
+        } else {
+
+            resetJournal(generation) ;
+        }
+    }
+
+    /**
+     * <p> To apply every intact frame from the buffer position on, leaving the position behind the last one </p>
+     *
+     * @param buffer The snapshot or journal buffer
+     * @return The number of applied frames
+     */
+    private int replayFrames(ByteBuffer buffer) {
+
+        int replayedCounter = 0 ;
+
+        while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+
+            int position = buffer.position() ;
+            int payloadLength = buffer.getInt(position) ;
+
+            if (payloadLength <= 0 || payloadLength > buffer.remaining() - FRAME_HEADER_SIZE) break ;
+
+            int payloadEnd = position + FRAME_HEADER_SIZE + payloadLength ;
+            int limit = buffer.limit() ;
+
+            // Checksum and decode the payload in place by narrowing the buffer, a million frames allocate nothing
+            checksum.reset() ;
+            checksum.update(buffer.limit(payloadEnd).position(position + FRAME_HEADER_SIZE)) ;
+
+            if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES)) {
+
+                log.warn("The Job Store dropped a torn frame at offset {}", position) ;
+
+                buffer.limit(limit).position(position) ;
+
+                break ;
+            }
+
+            apply(buffer.position(position + FRAME_HEADER_SIZE)) ;
+
+            buffer.limit(limit).position(payloadEnd) ;
+            replayedCounter ++ ;
+        }
+
+        return replayedCounter ;
+    }
+
+    private void apply(ByteBuffer payload) {
+
+        JournalEventEnum journalEvent = JournalEventEnum.fromCode(payload.get()) ;
+        long jobId = payload.getLong() ;
+
+        switch (journalEvent) {
+
+            case SCHEDULE -> {
+
+                long nextFireTime = payload.getLong() ;
+                long delay = payload.getLong() ;
+                int priorityLevel = payload.getInt() ;
+                int maxRetryCounter = payload.getInt() ;
+                int retryCounter = payload.getInt() ;
+                String taskName = getTaskName(payload) ;
+                String jobKey = getString(payload) ;
+                // Absent from frames written before cron jobs, fixed rates, job groups and deadlines could be persisted
+                String cronExpression = payload.hasRemaining() ? getString(payload) : null ;
+                String timeZone = payload.hasRemaining() ? getString(payload) : null ;
+                RecurrenceModeEnum recurrenceMode = payload.hasRemaining() ? RECURRENCE_MODES[payload.get()] : RecurrenceModeEnum.FIXED_DELAY ;
+                MisfirePolicyEnum misfirePolicy = payload.hasRemaining() ? MISFIRE_POLICIES[payload.get()] : MisfirePolicyEnum.FIRE_ONCE ;
+                String jobGroup = payload.hasRemaining() ? getString(payload) : null ;
+                long timeout = payload.hasRemaining() ? payload.getLong() : 0 ;
+                long deadline = payload.hasRemaining() ? payload.getLong() : 0 ;
+
+                durableJobRecordMap.put(jobId, new DurableJobRecord(
+                        jobId, taskName, jobKey, delay, priorityLevel, maxRetryCounter, retryCounter, nextFireTime,
+                        cronExpression, timeZone, recurrenceMode, misfirePolicy, jobGroup, timeout, deadline
+                )) ;
+            }
+            case RESCHEDULE -> {
+
+                DurableJobRecord durableJobRecord = durableJobRecordMap.get(jobId) ;
+
+                if (durableJobRecord != null) {
+
+                    durableJobRecord.setNextFireTime(payload.getLong()) ;
+                    durableJobRecord.setRetryCounter(payload.getInt()) ;
+                }
+            }
+            case COMPLETE, CANCEL -> durableJobRecordMap.remove(jobId) ;
+        }
+
+        nextJobId = Math.max(nextJobId, jobId + 1) ;
+    }
+
+    @Override
+    public void recordSchedule(EnhancedJob enhancedJob) {
+
+        lock.lock() ;
+        try {
+
+            ensureOpen() ;
+
+            CronExpression cronExpression = null ;
+
+            if (enhancedJob.getJobSchedule() instanceof CronExpression jobCronExpression) {
+
+                cronExpression = jobCronExpression ;
+            } else if (enhancedJob.getJobSchedule() != null) {
+
+                throw new IllegalArgumentException("Only cron schedules can be persisted: " + enhancedJob.getJobSchedule()) ;
+            }
+
+            if (enhancedJob.getJobId() == 0) enhancedJob.setJobId(nextJobId ++) ;
+
+            DurableJobRecord durableJobRecord = new DurableJobRecord(
+                    enhancedJob.getJobId(), enhancedJob.getTaskName(), enhancedJob.getJobKey(), enhancedJob.getDelay(),
+                    enhancedJob.getPriorityLevel(), enhancedJob.getMaxRetryCounter(), enhancedJob.getRetryCounter(), enhancedJob.getStartTime(),
+                    cronExpression != null ? cronExpression.getExpression() : null,
+                    cronExpression != null ? cronExpression.getZoneId().getId() : null,
+                    enhancedJob.getRecurrenceMode(), enhancedJob.getMisfirePolicy(), enhancedJob.getJobGroup(),
+                    enhancedJob.getTimeout(), enhancedJob.getDeadline()
+            ) ;
+
+            append(putSchedule(payloadBuffer.clear(), durableJobRecord).flip()) ;
+
+            durableJobRecordMap.put(durableJobRecord.getJobId(), durableJobRecord) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void recordReschedule(EnhancedJob enhancedJob) {
+
+        lock.lock() ;
+        try {
+
+            ensureOpen() ;
+
+            DurableJobRecord durableJobRecord = durableJobRecordMap.get(enhancedJob.getJobId()) ;
+
+            if (durableJobRecord == null) return ;
+
+            durableJobRecord.setNextFireTime(enhancedJob.getStartTime()) ;
+            durableJobRecord.setRetryCounter(enhancedJob.getRetryCounter()) ;
+
+            append(payloadBuffer.clear()
+                    .put(JournalEventEnum.RESCHEDULE.getCode())
+                    .putLong(durableJobRecord.getJobId())
+                    .putLong(durableJobRecord.getNextFireTime())
+                    .putInt(durableJobRecord.getRetryCounter())
+                    .flip()) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void recordComplete(EnhancedJob enhancedJob) {
+
+        recordRemoval(enhancedJob, JournalEventEnum.COMPLETE) ;
+    }
+
+    @Override
+    public void recordCancel(EnhancedJob enhancedJob) {
+
+        recordRemoval(enhancedJob, JournalEventEnum.CANCEL) ;
+    }
+
+    private void recordRemoval(EnhancedJob enhancedJob, JournalEventEnum journalEvent) {
+
+        lock.lock() ;
+        try {
+
+            ensureOpen() ;
+
+            if (durableJobRecordMap.remove(enhancedJob.getJobId()) == null) return ;
+
+            append(payloadBuffer.clear().put(journalEvent.getCode()).putLong(enhancedJob.getJobId()).flip()) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public List<DurableJobRecord> recover() {
+
+        lock.lock() ;
+        try {
+
+            return new ArrayList<>(durableJobRecordMap.values()) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void compact() {
+
+        lock.lock() ;
+        try {
+
+            ensureOpen() ;
+
+            compactInternal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void close() {
+
+        lock.lock() ;
+        try {
+
+            if (isClosed) return ;
+
+            isClosed = true ;
+
+            journalBuffer.force() ;
+            journalChannel.close() ;
+        } catch (IOException exception) {
+
+            throw new UncheckedIOException(exception) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    private void ensureOpen() {
+
+        if (isClosed) throw new IllegalStateException("The Job Store has been closed") ;
+    }
+
+    private void append(ByteBuffer payload) {
+
+        int frameSize = FRAME_HEADER_SIZE + payload.remaining() ;
+
+        // Room for the frame and the zero length terminating the journal behind it
+        if (journalBuffer.remaining() < frameSize + Integer.BYTES) compactInternal() ;
+
+        journalBuffer.putInt(journalBuffer.position() + frameSize, 0) ;
+
+        putFrame(journalBuffer, payload) ;
+    }
+
+    private void putFrame(ByteBuffer target, ByteBuffer payload) {
+
+        checksum.reset() ;
+        checksum.update(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining()) ;
+
+        target.putInt(payload.remaining()).putInt((int) checksum.getValue()).put(payload) ;
+    }
+
+    private void compactInternal() {
+
+        long nextGeneration = generation + 1 ;
+
+        try {
+
+            writeSnapshot(nextGeneration) ;
+            journalBuffer.force() ;
+        } catch (IOException exception) {
+
+            throw new UncheckedIOException(exception) ;
+        }
+
+        resetJournal(nextGeneration) ;
+        generation = nextGeneration ;
+    }
+
+    private void writeSnapshot(long snapshotGeneration) throws IOException {
+
+        try (FileChannel snapshotChannel = FileChannel.open(snapshotTempPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ByteBuffer chunkBuffer = ByteBuffer.allocateDirect(SNAPSHOT_CHUNK_SIZE) ;
+            ByteBuffer recordBuffer = ByteBuffer.allocate(MAX_PAYLOAD_SIZE) ;
+
+            chunkBuffer.putInt(SNAPSHOT_MAGIC).putLong(snapshotGeneration).putInt(durableJobRecordMap.size()) ;
+
+            for (DurableJobRecord durableJobRecord : durableJobRecordMap.values()) {
+
+                putSchedule(recordBuffer.clear(), durableJobRecord).flip() ;
+
+                if (chunkBuffer.remaining() < FRAME_HEADER_SIZE + recordBuffer.remaining()) writeFully(snapshotChannel, chunkBuffer) ;
+
+                putFrame(chunkBuffer, recordBuffer) ;
+            }
+
+            writeFully(snapshotChannel, chunkBuffer) ;
+
+            snapshotChannel.force(true) ;
+        }
+
+        Files.move(snapshotTempPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING) ;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+        buffer.flip() ;
+        while (buffer.hasRemaining()) channel.write(buffer) ;
+        buffer.clear() ;
+    }
+
+    private void resetJournal(long journalGeneration) {
+
+        // Terminate first, the frames of the previous generation must never be replayed behind the new header
+        journalBuffer.putInt(JOURNAL_HEADER_SIZE, 0) ;
+        journalBuffer.putInt(0, JOURNAL_MAGIC) ;
+        journalBuffer.putLong(Integer.BYTES, journalGeneration) ;
+        journalBuffer.position(JOURNAL_HEADER_SIZE) ;
+    }
+
+    private static ByteBuffer putSchedule(ByteBuffer buffer, DurableJobRecord durableJobRecord) {
+
+        buffer.put(JournalEventEnum.SCHEDULE.getCode())
+                .putLong(durableJobRecord.getJobId())
+                .putLong(durableJobRecord.getNextFireTime())
+                .putLong(durableJobRecord.getDelay())
+                .putInt(durableJobRecord.getPriorityLevel())
+                .putInt(durableJobRecord.getMaxRetryCounter())
+                .putInt(durableJobRecord.getRetryCounter()) ;
+
+        putString(buffer, durableJobRecord.getTaskName()) ;
+        putString(buffer, durableJobRecord.getJobKey()) ;
+        putString(buffer, durableJobRecord.getCronExpression()) ;
+        putString(buffer, durableJobRecord.getTimeZone()) ;
+
+        buffer.put((byte) durableJobRecord.getRecurrenceMode().ordinal()).put((byte) durableJobRecord.getMisfirePolicy().ordinal()) ;
+        putString(buffer, durableJobRecord.getJobGroup()) ;
+
+        buffer.putLong(durableJobRecord.getTimeout()).putLong(durableJobRecord.getDeadline()) ;
+
+        return buffer ;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+
+        if (value == null) {
+
+            buffer.putShort((short) -1) ;
+
+            return ;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8) ;
+
+        if (bytes.length > MAX_STRING_BYTES) throw new IllegalArgumentException("Durable job string longer than " + MAX_STRING_BYTES + " bytes: " + value) ;
+
+        buffer.putShort((short) bytes.length).put(bytes) ;
+    }
+
+    /**
+     * <p> To decode a task name, reusing the previous string while the names repeat as they mostly do </p>
+     */
+    private String getTaskName(ByteBuffer buffer) {
+
+        short length = buffer.getShort() ;
+
+        if (length < 0) return null ;
+
+        if (lastTaskName != null && length == lastTaskNameBytes.length && matchesLastTaskName(buffer)) {
+
+            buffer.position(buffer.position() + length) ;
+
+            return lastTaskName ;
+        }
+
+        lastTaskNameBytes = new byte[length] ;
+        buffer.get(lastTaskNameBytes) ;
+        lastTaskName = new String(lastTaskNameBytes, StandardCharsets.UTF_8) ;
+
+        return lastTaskName ;
+    }
+
+    private boolean matchesLastTaskName(ByteBuffer buffer) {
+
+        int position = buffer.position() ;
+
+        for (int i = 0 ; i < lastTaskNameBytes.length ; i ++) {
+
+            if (buffer.get(position + i) != lastTaskNameBytes[i]) return false ;
+        }
+
+        return true ;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+
+        short length = buffer.getShort() ;
+
+        if (length < 0) return null ;
+
+        byte[] bytes = new byte[length] ;
+        buffer.get(bytes) ;
+
+        return new String(bytes, StandardCharsets.UTF_8) ;
+    }
+}
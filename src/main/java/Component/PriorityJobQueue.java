@@ -0,0 +1,114 @@
+package Component;
+
+import behavior.JobQueue;
+import entity.Job;
+
+import java.util.Collection;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> Priority Job Queue Class </b>
+ *
+ * <p> Single heap in the natural order of the jobs, the head is handed out only once it is due. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/09
+ */
+public class PriorityJobQueue<T extends Job> implements JobQueue<T> {
+
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private final Condition available = lock.newCondition() ;
+    private final JobHeap<T> jobHeap = new JobHeap<>(Job::compareTo) ;
+
+    @Override
+    public void offer(T job) {
+
+        lock.lock() ;
+        try {
+
+            jobHeap.offer(job) ;
+
+            if (jobHeap.peek() == job) available.signal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public void offerAll(Collection<? extends T> jobs) {
+
+        lock.lock() ;
+        try {
+
+            jobHeap.offerAll(jobs) ;
+
+            available.signal() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public T take() throws InterruptedException {
+
+        lock.lockInterruptibly() ;
+        try {
+
+            while (true) {
+
+                T head = jobHeap.peek() ;
+
+                if (head == null) {
+
+                    available.await() ;
+                    continue ;
+                }
+
+                long remainingNanos = head.getStartNanoTime() - System.nanoTime() ;
+
+                if (remainingNanos <= 0) return jobHeap.poll() ;
+
+                available.awaitNanos(remainingNanos) ;
+            }
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public T peek() {
+
+        lock.lock() ;
+        try {
+
+            return jobHeap.peek() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int purgeCancelled() {
+
+        lock.lock() ;
+        try {
+
+            return jobHeap.removeIf(Job::isCancelled) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    @Override
+    public int size() {
+
+        lock.lock() ;
+        try {
+
+            return jobHeap.size() ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+}
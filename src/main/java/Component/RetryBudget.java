@@ -0,0 +1,142 @@
+package Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> Retry Budget Class </b>
+ *
+ * <p> Caps the retries at a fraction of the first attempts over a sliding window of ten seconds, plus a small
+ * reserve per second so that a quiet trigger can still retry. Every first attempt deposits the ratio and every
+ * retry withdraws one, so when a downstream outage fails most jobs at once the retries stay a fixed share of the
+ * traffic instead of multiplying it. The reserve of a second is spent within that second only, an idle
+ * window never piles it up into a burst. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/25
+ */
+public class RetryBudget {
+
+    private static final int BUCKET_COUNTER = 10 ;
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(1) ;
+
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private final double retryRatio ;
+    private final int minRetriesPerSecond ;
+    private final long[] depositBuckets = new long[BUCKET_COUNTER] ;
+    private final long[] withdrawBuckets = new long[BUCKET_COUNTER] ;
+    // Retries the deposits could not cover, taken from the reserve of their second
+    private final long[] reserveWithdrawBuckets = new long[BUCKET_COUNTER] ;
+    private long currentBucketIndex ;
+
+    /**
+     * @param retryRatio The retries allowed per first attempt, e.g. 0.1 for one retry every ten first attempts
+     * @param minRetriesPerSecond The retries allowed per second whatever the first attempts
+     */
+    public RetryBudget(double retryRatio, int minRetriesPerSecond) {
+
+        if (!(retryRatio >= 0)) throw new IllegalArgumentException("Retry ratio must not be negative: " + retryRatio) ;
+        if (minRetriesPerSecond < 0) throw new IllegalArgumentException("Min retries per second must not be negative: " + minRetriesPerSecond) ;
+
+        this.retryRatio = retryRatio ;
+        this.minRetriesPerSecond = minRetriesPerSecond ;
+        this.currentBucketIndex = Math.floorDiv(System.nanoTime(), BUCKET_NANOS) ;
+    }
+
+    /**
+     * <p> To credit the budget with a first attempt </p>
+     */
+    public void deposit() {
+
+        lock.lock() ;
+        try {
+
+            advance(System.nanoTime()) ;
+
+            depositBuckets[(int) Math.floorMod(currentBucketIndex, (long) BUCKET_COUNTER)] ++ ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * @return false if the budget is spent, the retry must be dropped
+     */
+    public boolean tryWithdraw() {
+
+        lock.lock() ;
+        try {
+
+            advance(System.nanoTime()) ;
+
+            int bucket = (int) Math.floorMod(currentBucketIndex, (long) BUCKET_COUNTER) ;
+
+            // The deposits pay first, the reserve only tops them up
+            if (getBalance() >= 1) withdrawBuckets[bucket] ++ ;
+            else if (reserveWithdrawBuckets[bucket] < minRetriesPerSecond) reserveWithdrawBuckets[bucket] ++ ;
+            else return false ;
+
+            return true ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * @return The number of retries left in the current window
+     */
+    public double getAvailableRetries() {
+
+        lock.lock() ;
+        try {
+
+            advance(System.nanoTime()) ;
+
+            int bucket = (int) Math.floorMod(currentBucketIndex, (long) BUCKET_COUNTER) ;
+
+            return Math.max(getBalance(), 0) + minRetriesPerSecond - reserveWithdrawBuckets[bucket] ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    public double getRetryRatio() {
+
+        return retryRatio ;
+    }
+
+    public int getMinRetriesPerSecond() {
+
+        return minRetriesPerSecond ;
+    }
+
+    private double getBalance() {
+
+        long depositCounter = 0 ;
+        long withdrawCounter = 0 ;
+        for (int i = 0 ; i < BUCKET_COUNTER ; i ++) {
+
+            depositCounter += depositBuckets[i] ;
+            withdrawCounter += withdrawBuckets[i] ;
+        }
+
+        return retryRatio * depositCounter - withdrawCounter ;
+    }
+
+    // Clears the buckets that slid out of the window since the last call
+    private void advance(long nanoTime) {
+
+        long bucketIndex = Math.floorDiv(nanoTime, BUCKET_NANOS) ;
+
+        long expiredBucketCounter = Math.min(bucketIndex - currentBucketIndex, BUCKET_COUNTER) ;
+        for (long i = 1 ; i <= expiredBucketCounter ; i ++) {
+
+            int bucket = (int) Math.floorMod(currentBucketIndex + i, (long) BUCKET_COUNTER) ;
+            depositBuckets[bucket] = 0 ;
+            withdrawBuckets[bucket] = 0 ;
+            reserveWithdrawBuckets[bucket] = 0 ;
+        }
+
+        if (bucketIndex > currentBucketIndex) currentBucketIndex = bucketIndex ;
+    }
+}
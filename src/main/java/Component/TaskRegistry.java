@@ -0,0 +1,55 @@
+package Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * <b> Durable Task Registry Class </b>
+ *
+ * <p> Maps the stable task name of a durable job onto the factory of its task, so that jobs read back
+ * from a job store after a restart get a runnable task again. Stored jobs of a task registered only after
+ * the recovery are scheduled on its registration. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/17
+ */
+public class TaskRegistry {
+
+    private final Map<String, Supplier<? extends Runnable>> taskFactoryMap = new ConcurrentHashMap<>() ;
+    // Told the name of every registered task by the trigger holding the stored jobs of unregistered tasks
+    private volatile Consumer<String> registrationListener ;
+
+    /**
+     * @param taskName The stable name the task is persisted under
+     * @param taskFactory The factory creating the task of every job with that name
+     */
+    public void register(String taskName, Supplier<? extends Runnable> taskFactory) {
+
+        taskFactoryMap.put(taskName, taskFactory) ;
+
+        Consumer<String> listener = registrationListener ;
+
+        if (listener != null) listener.accept(taskName) ;
+    }
+
+    void setRegistrationListener(Consumer<String> registrationListener) {
+
+        this.registrationListener = registrationListener ;
+    }
+
+    public boolean isRegistered(String taskName) {
+
+        return taskFactoryMap.containsKey(taskName) ;
+    }
+
+    public Runnable createTask(String taskName) {
+
+        Supplier<? extends Runnable> taskFactory = taskFactoryMap.get(taskName) ;
+
+        if (taskFactory == null) throw new IllegalArgumentException("No task registered under the name: " + taskName) ;
+
+        return taskFactory.get() ;
+    }
+}
@@ -1,45 +1,316 @@
 package Component;
 
+import behavior.ConcurrencyLimit;
+import entity.JobGroup;
 import entity.TaskExecutionStatistics;
+import entity.TaskResourceMetricsSnapshot;
 import functionalInterface.InterruptedExceptionSupplier;
 import lombok.extern.slf4j.Slf4j;
+import util.LatencyHistogram;
 
+import java.io.Serial;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.Map ;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * <b> Task Resource Manager Class </b>
  *
+ * <p> Hands out a fixed number of permits, or as many as an adaptive {@link ConcurrencyLimit} currently
+ * allows. A shrinking limit leaves the permits in use alone and only holds back new ones until the
+ * executions in flight drained below it. </p>
+ *
+ * <p> On top of the shared limit every {@link JobGroup} has a quota of its own, unknown groups count
+ * against the quota of the default group. </p>
+ *
  * @author Aki Chou
  * @date 2025/02/02
  */
 @Slf4j
 public class TaskResourceManager {
 
-    private final Semaphore taskSemaphore ;
+    private final AdjustableSemaphore taskSemaphore ;
+    private final int maxConcurrentTaskCounter ;
+    private final ConcurrencyLimit concurrencyLimit ;
+    private final AtomicInteger inFlightTaskCounter = new AtomicInteger() ;
+    private volatile int currentLimit ;
+    private final Map<String, JobGroupQuota> jobGroupQuotaMap = new ConcurrentHashMap<>() ;
     private final Map<String, TaskExecutionStatistics> taskExecutionStatisticsMap = new ConcurrentHashMap<>() ;
 
+    private final LongAdder permitAcquireCounter = new LongAdder() ;
+    private final LongAdder permitTimeoutCounter = new LongAdder() ;
+    private final LatencyHistogram permitWaitMicrosHistogram = new LatencyHistogram() ;
+
     public TaskResourceManager(int maxConcurrentTaskCounter) {
 
-        this.taskSemaphore = new Semaphore(maxConcurrentTaskCounter) ;
+        this.taskSemaphore = new AdjustableSemaphore(maxConcurrentTaskCounter) ;
+        this.maxConcurrentTaskCounter = maxConcurrentTaskCounter ;
+        this.concurrencyLimit = null ;
+        this.currentLimit = maxConcurrentTaskCounter ;
+        this.jobGroupQuotaMap.put(JobGroup.DEFAULT_GROUP_NAME, new JobGroupQuota(Integer.MAX_VALUE)) ;
+    }
+
+    /**
+     * @param concurrencyLimit The adaptive limit driving the permit number, fed by {@link #releaseTaskResource(long, boolean)}
+     */
+    public TaskResourceManager(ConcurrencyLimit concurrencyLimit) {
+
+        this.taskSemaphore = new AdjustableSemaphore(concurrencyLimit.getLimit()) ;
+        this.maxConcurrentTaskCounter = concurrencyLimit.getMaxLimit() ;
+        this.concurrencyLimit = concurrencyLimit ;
+        this.currentLimit = concurrencyLimit.getLimit() ;
+        this.jobGroupQuotaMap.put(JobGroup.DEFAULT_GROUP_NAME, new JobGroupQuota(Integer.MAX_VALUE)) ;
+    }
+
+    /**
+     * <p> To give a job group its own quota before its first job, a group configured under the default name
+     * replaces the default quota </p>
+     */
+    public void addJobGroup(JobGroup jobGroup) {
+
+        if (jobGroup.getMaxConcurrentTaskCounter() <= 0) {
+
+            throw new IllegalArgumentException("Job group quota must be positive: " + jobGroup) ;
+        }
+
+        jobGroupQuotaMap.put(jobGroup.getName(), new JobGroupQuota(jobGroup.getMaxConcurrentTaskCounter())) ;
     }
 
     public boolean acquireTaskResource(long timeout, TimeUnit timeUnit) {
 
-        return execute(() -> taskSemaphore.tryAcquire(timeout, timeUnit)) ;
+        long waitStartNanoTime = System.nanoTime() ;
+
+        boolean acquired = execute(() -> taskSemaphore.tryAcquire(timeout, timeUnit)) ;
+
+        recordPermitWait(waitStartNanoTime, acquired) ;
+
+        return acquired ;
+    }
+
+    public void acquireTaskResource() {
+
+        long waitStartNanoTime = System.nanoTime() ;
+
+        execute(() -> {
+
+            taskSemaphore.acquire() ;
+
+            return true ;
+        }) ;
+
+        recordPermitWait(waitStartNanoTime, true) ;
+    }
+
+    /**
+     * <p> To take a permit for a job of the group without waiting, callers must not race each other
+     * as the quota is checked before the permit is taken </p>
+     *
+     * @param jobGroup The name of the job group
+     * @param waitStartNanoTime Since when the job has been waiting for the permit
+     * @return false if the group used up its quota or no permit is left
+     */
+    public boolean tryAcquireTaskResource(String jobGroup, long waitStartNanoTime) {
+
+        JobGroupQuota jobGroupQuota = getJobGroupQuota(jobGroup) ;
+
+        if (jobGroupQuota.isSaturated() || !taskSemaphore.tryAcquire()) return false ;
+
+        jobGroupQuota.inFlightTaskCounter.incrementAndGet() ;
+
+        recordPermitWait(waitStartNanoTime, true) ;
+
+        return true ;
+    }
+
+    public boolean isJobGroupSaturated(String jobGroup) {
+
+        return getJobGroupQuota(jobGroup).isSaturated() ;
+    }
+
+    private JobGroupQuota getJobGroupQuota(String jobGroup) {
+
+        JobGroupQuota jobGroupQuota = jobGroup != null ? jobGroupQuotaMap.get(jobGroup) : null ;
+
+        return jobGroupQuota != null ? jobGroupQuota : jobGroupQuotaMap.get(JobGroup.DEFAULT_GROUP_NAME) ;
+    }
+
+    private void recordPermitWait(long waitStartNanoTime, boolean acquired) {
+
+        permitWaitMicrosHistogram.record((System.nanoTime() - waitStartNanoTime) / 1_000) ;
+
+        if (acquired) {
+
+            inFlightTaskCounter.incrementAndGet() ;
+            permitAcquireCounter.increment() ;
+        } else {
+
+            permitTimeoutCounter.increment() ;
+        }
+    }
+
+    public TaskResourceMetricsSnapshot getMetricsSnapshot() {
+
+        return TaskResourceMetricsSnapshot.builder()
+                .maxConcurrentTaskCounter(maxConcurrentTaskCounter)
+                .concurrencyLimit(currentLimit)
+                .inFlightTaskCounter(inFlightTaskCounter.get())
+                // Negative while a lowered limit still has more executions in flight than it allows
+                .availablePermits(Math.max(0, taskSemaphore.availablePermits()))
+                .permitWaitingThreadCounter(taskSemaphore.getQueueLength())
+                .permitAcquireCounter(permitAcquireCounter.sum())
+                .permitTimeoutCounter(permitTimeoutCounter.sum())
+                .p50PermitWaitMicros(permitWaitMicrosHistogram.getValueAtPercentile(0.5))
+                .p99PermitWaitMicros(permitWaitMicrosHistogram.getValueAtPercentile(0.99))
+                .jobGroupInFlightTaskCounterMap(getJobGroupInFlightTaskCounterMap())
+                .build() ;
+    }
+
+    private Map<String, Integer> getJobGroupInFlightTaskCounterMap() {
+
+        Map<String, Integer> jobGroupInFlightTaskCounterMap = new HashMap<>() ;
+        jobGroupQuotaMap.forEach((name, jobGroupQuota) -> jobGroupInFlightTaskCounterMap.put(name, jobGroupQuota.inFlightTaskCounter.get())) ;
+
+        return jobGroupInFlightTaskCounterMap ;
     }
 
+    /**
+     * <p> To give back a permit without a sample, e.g. when the execution never started </p>
+     */
     public void releaseTaskResource() {
 
+        inFlightTaskCounter.decrementAndGet() ;
+
         taskSemaphore.release() ;
     }
 
+    /**
+     * <p> To give back the permit of a completed execution and let the adaptive limit learn from it </p>
+     *
+     * @param rttNanos The time from acquiring the permit to releasing it
+     * @param dropped Whether the execution failed or timed out
+     */
+    public void releaseTaskResource(long rttNanos, boolean dropped) {
+
+        int inFlight = inFlightTaskCounter.getAndDecrement() ;
+
+        taskSemaphore.release() ;
+
+        if (concurrencyLimit != null) updateLimit(rttNanos, inFlight, dropped) ;
+    }
+
+    /**
+     * <p> To give back a permit taken by {@link #tryAcquireTaskResource(String, long)} without a sample </p>
+     */
+    public void releaseTaskResource(String jobGroup) {
+
+        getJobGroupQuota(jobGroup).inFlightTaskCounter.decrementAndGet() ;
+
+        releaseTaskResource() ;
+    }
+
+    /**
+     * <p> To give back the permit of a completed execution taken by {@link #tryAcquireTaskResource(String, long)} </p>
+     */
+    public void releaseTaskResource(String jobGroup, long rttNanos, boolean dropped) {
+
+        getJobGroupQuota(jobGroup).inFlightTaskCounter.decrementAndGet() ;
+
+        releaseTaskResource(rttNanos, dropped) ;
+    }
+
+    private synchronized void updateLimit(long rttNanos, int inFlight, boolean dropped) {
+
+        int newLimit = concurrencyLimit.onSample(rttNanos, inFlight, dropped) ;
+        int delta = newLimit - currentLimit ;
+
+        if (delta > 0) taskSemaphore.release(delta) ;
+        else if (delta < 0) taskSemaphore.reducePermits(- delta) ;
+
+        currentLimit = newLimit ;
+    }
+
+    public int getMaxConcurrentTaskCounter() {
+
+        return maxConcurrentTaskCounter ;
+    }
+
+    public int getConcurrencyLimit() {
+
+        return currentLimit ;
+    }
+
     public void recordTaskExecution(String taskId, boolean success, long executionTime, int retryCounter) {
 
-        taskExecutionStatisticsMap.computeIfAbsent(taskId, key -> new TaskExecutionStatistics())
-                .recordTaskExecution(success, executionTime, retryCounter) ;
+        getOrCreateTaskExecutionStatistics(taskId).recordTaskExecution(success, executionTime, retryCounter) ;
+    }
+
+    public void recordTaskExecution(String taskId, boolean success, long executionNanos, long startLagNanos, boolean isRetry) {
+
+        getOrCreateTaskExecutionStatistics(taskId).recordTaskExecution(success, executionNanos, startLagNanos, isRetry) ;
+    }
+
+    public TaskExecutionStatistics getTaskExecutionStatistics(String taskId) {
+
+        return taskExecutionStatisticsMap.get(taskId) ;
+    }
+
+    public Map<String, TaskExecutionStatistics> getTaskExecutionStatisticsMap() {
+
+        return Collections.unmodifiableMap(taskExecutionStatisticsMap) ;
+    }
+
+    private TaskExecutionStatistics getOrCreateTaskExecutionStatistics(String taskId) {
+
+        // Plain get first, computeIfAbsent may lock the bin even when the key is already present
+        TaskExecutionStatistics taskExecutionStatistics = taskExecutionStatisticsMap.get(taskId) ;
+
+        return taskExecutionStatistics != null
+                ? taskExecutionStatistics
+                : taskExecutionStatisticsMap.computeIfAbsent(taskId, key -> new TaskExecutionStatistics()) ;
+    }
+
+    /**
+     * <b> Permit quota and usage of a single job group </b>
+     */
+    private static class JobGroupQuota {
+
+        private final int maxConcurrentTaskCounter ;
+        private final AtomicInteger inFlightTaskCounter = new AtomicInteger() ;
+
+        JobGroupQuota(int maxConcurrentTaskCounter) {
+
+            this.maxConcurrentTaskCounter = maxConcurrentTaskCounter ;
+        }
+
+        boolean isSaturated() {
+
+            return inFlightTaskCounter.get() >= maxConcurrentTaskCounter ;
+        }
+    }
+
+    /**
+     * <b> Semaphore whose permits can also be taken away without waiting for them </b>
+     */
+    private static class AdjustableSemaphore extends Semaphore {
+
+        @Serial
+        private static final long serialVersionUID = 1L ;
+
+        AdjustableSemaphore(int permits) {
+
+            super(permits) ;
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+
+            super.reducePermits(reduction) ;
+        }
     }
 
     /**
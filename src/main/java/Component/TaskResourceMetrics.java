@@ -0,0 +1,29 @@
+package Component;
+
+import behavior.TaskResourceMetricsMXBean;
+import entity.TaskResourceMetricsSnapshot;
+import lombok.experimental.Delegate;
+
+import java.util.function.Supplier;
+
+/**
+ * <b> Task Resource Manager Metrics JMX Adapter Class </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/15
+ */
+public class TaskResourceMetrics implements TaskResourceMetricsMXBean {
+
+    private final Supplier<TaskResourceMetricsSnapshot> snapshotSupplier ;
+
+    public TaskResourceMetrics(Supplier<TaskResourceMetricsSnapshot> snapshotSupplier) {
+
+        this.snapshotSupplier = snapshotSupplier ;
+    }
+
+    @Delegate(types = TaskResourceMetricsMXBean.class)
+    private TaskResourceMetricsSnapshot snapshot() {
+
+        return snapshotSupplier.get() ;
+    }
+}
@@ -0,0 +1,237 @@
+package Component;
+
+import entity.Job;
+
+import java.util.function.Consumer;
+
+/**
+ * <b> Hierarchical Hashed Timing Wheel Class </b>
+ *
+ * <p> Every level holds {@code wheelSize} buckets of {@code tickDuration} each, a job too far away for
+ * this level is handed to a lazily created overflow wheel whose tick equals this level's whole span.
+ * Insert and expiry are O(1), entries cascade down one level each time their overflow bucket comes due. </p>
+ *
+ * <p> Not thread-safe, only the owning dispatcher thread may touch it. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/08
+ */
+public class TimingWheel {
+
+    private final long tickDuration ;
+    private final int wheelSize ;
+    private final boolean isLowestLevel ;
+    private final TimerBucket[] buckets ;
+    private long currentTick ;
+    private TimingWheel overflowWheel ;
+
+    public TimingWheel(long tickDuration, int wheelSize, long currentTime) {
+
+        this(tickDuration, wheelSize, currentTime, true) ;
+    }
+
+    private TimingWheel(long tickDuration, int wheelSize, long currentTime, boolean isLowestLevel) {
+
+        this.tickDuration = tickDuration ;
+        this.wheelSize = wheelSize ;
+        this.isLowestLevel = isLowestLevel ;
+        this.buckets = new TimerBucket[wheelSize] ;
+        for (int i = 0 ; i < wheelSize ; i ++) buckets[i] = new TimerBucket() ;
+        this.currentTick = currentTime / tickDuration ;
+    }
+
+    /**
+     * <p> To put the entry into the bucket of its expiration </p>
+     *
+     * @param entry The entry to be added
+     * @return false if the entry is already expired and should be fired by the caller right away
+     */
+    public boolean add(TimerEntry entry) {
+
+        // The lowest level rounds up so that nothing fires early, upper levels round down so that
+        // entries cascade before their expiration instead of after it
+        long deadlineTick = isLowestLevel
+                ? Math.ceilDiv(entry.expiration, tickDuration)
+                : entry.expiration / tickDuration ;
+        long remainingTicks = deadlineTick - currentTick ;
+
+        if (isLowestLevel && remainingTicks <= 0) return false ;
+
+        if (remainingTicks <= wheelSize) {
+
+            buckets[(int) (deadlineTick % wheelSize)].add(entry) ;
+
+            return true ;
+        }
+
+        if (overflowWheel == null) {
+
+            overflowWheel = new TimingWheel(tickDuration * wheelSize, wheelSize, currentTick * tickDuration, false) ;
+        }
+
+        return overflowWheel.add(entry) ;
+    }
+
+    /**
+     * <p> To move the lowest level forward by one tick, firing everything due and cascading overflow buckets </p>
+     *
+     * @param expiredEntryConsumer The callback receiving each expired entry
+     */
+    public void advanceClock(Consumer<TimerEntry> expiredEntryConsumer) {
+
+        currentTick ++ ;
+
+        flush(buckets[(int) (currentTick % wheelSize)], expiredEntryConsumer) ;
+
+        if (overflowWheel != null) overflowWheel.cascade(currentTick * tickDuration, this, expiredEntryConsumer) ;
+    }
+
+    public long getCurrentTime() {
+
+        return currentTick * tickDuration ;
+    }
+
+    public long getTickDuration() {
+
+        return tickDuration ;
+    }
+
+    private void cascade(long currentTime, TimingWheel lowestWheel, Consumer<TimerEntry> expiredEntryConsumer) {
+
+        long targetTick = currentTime / tickDuration ;
+
+        while (currentTick < targetTick) {
+
+            currentTick ++ ;
+
+            TimerBucket bucket = buckets[(int) (currentTick % wheelSize)] ;
+            TimerEntry entry = bucket.detachAll() ;
+
+            while (entry != null) {
+
+                TimerEntry next = entry.next ;
+                entry.next = null ;
+
+                if (!lowestWheel.add(entry)) expiredEntryConsumer.accept(entry) ;
+
+                entry = next ;
+            }
+        }
+
+        if (overflowWheel != null) overflowWheel.cascade(currentTime, lowestWheel, expiredEntryConsumer) ;
+    }
+
+    private static void flush(TimerBucket bucket, Consumer<TimerEntry> expiredEntryConsumer) {
+
+        TimerEntry entry = bucket.detachAll() ;
+
+        while (entry != null) {
+
+            TimerEntry next = entry.next ;
+            entry.next = null ;
+
+            expiredEntryConsumer.accept(entry) ;
+
+            entry = next ;
+        }
+    }
+
+    /**
+     * <b> Timing Wheel Entry </b>
+     */
+    public static final class TimerEntry {
+
+        private final Job job ;
+        private long expiration ;
+        private TimerBucket bucket ;
+        private TimerEntry prev ;
+        private TimerEntry next ;
+
+        public TimerEntry(Job job, long expiration) {
+
+            this.job = job ;
+            this.expiration = expiration ;
+        }
+
+        public Job getJob() {
+
+            return job ;
+        }
+
+        public long getExpiration() {
+
+            return expiration ;
+        }
+
+        /**
+         * <p> To reuse the entry for the next execution of a recurring job, only while it is in no bucket </p>
+         *
+         * @param expiration The new expiration on the wheel clock
+         */
+        public void setExpiration(long expiration) {
+
+            if (bucket != null) throw new IllegalStateException("Timer entry is still in a bucket") ;
+
+            this.expiration = expiration ;
+        }
+
+        /**
+         * <p> To unlink the entry from its bucket in O(1) </p>
+         *
+         * @return false if the entry was not in any bucket
+         */
+        public boolean remove() {
+
+            return bucket != null && bucket.remove(this) ;
+        }
+    }
+
+    /**
+     * <b> Intrusive doubly linked list of entries sharing the same tick </b>
+     */
+    private static final class TimerBucket {
+
+        private TimerEntry head ;
+
+        private void add(TimerEntry entry) {
+
+            entry.bucket = this ;
+            entry.prev = null ;
+            entry.next = head ;
+
+            if (head != null) head.prev = entry ;
+
+            head = entry ;
+        }
+
+        private boolean remove(TimerEntry entry) {
+
+            if (entry.bucket != this) return false ;
+
+            if (entry.prev != null) entry.prev.next = entry.next ;
+            else head = entry.next ;
+
+            if (entry.next != null) entry.next.prev = entry.prev ;
+
+            entry.bucket = null ;
+            entry.prev = null ;
+            entry.next = null ;
+
+            return true ;
+        }
+
+        private TimerEntry detachAll() {
+
+            TimerEntry detached = head ;
+            head = null ;
+
+            for (TimerEntry entry = detached ; entry != null ; entry = entry.next) {
+
+                entry.bucket = null ;
+                entry.prev = null ;
+            }
+
+            return detached ;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package Component;
+
+import behavior.TaskScheduler;
+import entity.Job;
+import entity.JobHandle;
+import functionalInterface.InterruptedExceptionHandler;
+import lombok.extern.slf4j.Slf4j;
+import util.FormattedDateTimeUtil;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <b> Task Execution Timing Wheel Trigger Class </b>
+ *
+ * <p> Alternative to the heap-backed triggers, producers only append to a lock-free queue which
+ * the dispatcher thread drains into a {@link TimingWheel} once per tick. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/08
+ */
+@Slf4j
+public class TimingWheelTrigger implements TaskScheduler {
+
+    private static final long DEFAULT_TICK_DURATION = 10 ;
+    private static final int DEFAULT_WHEEL_SIZE = 512 ;
+
+    private final ExecutorService executorService ;
+    private final Queue<Job> incomingJobQueue ;
+    private final Queue<TimingWheel.TimerEntry> rescheduledEntryQueue ;
+    private final TimingWheel timingWheel ;
+    private final AtomicBoolean isRunning ;
+    private final Thread processingThread ;
+    private final long startNanoTime ;
+    private final Consumer<TimingWheel.TimerEntry> expiredEntryConsumer = this::fire ;
+
+    public TimingWheelTrigger() {
+
+        this(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE) ;
+    }
+
+    /**
+     * @param tickDuration The duration of a single tick of the lowest wheel in milliseconds
+     * @param wheelSize The bucket number of every wheel level
+     */
+    public TimingWheelTrigger(long tickDuration, int wheelSize) {
+
+        if (tickDuration <= 0) throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration) ;
+        if (wheelSize <= 0) throw new IllegalArgumentException("Wheel size must be positive: " + wheelSize) ;
+
+        this.executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()) ;
+        this.incomingJobQueue = new ConcurrentLinkedQueue<>() ;
+        this.rescheduledEntryQueue = new ArrayDeque<>() ;
+        this.timingWheel = new TimingWheel(tickDuration, wheelSize, 0) ;
+        this.isRunning = new AtomicBoolean(true) ;
+        this.startNanoTime = System.nanoTime() ;
+        this.processingThread = createProcessingThread() ;
+        this.processingThread.start() ;
+        log.info("The Timing Wheel Trigger was executed at: {}", FormattedDateTimeUtil.getWithBrackets()) ;
+    }
+
+    private Thread createProcessingThread() {
+
+        return new Thread(() -> {
+
+            while (isRunning.get()) {
+
+                execute(() -> {
+
+                    awaitNextTick() ;
+
+                    transferEntries() ;
+                    transferJobs() ;
+
+                    timingWheel.advanceClock(expiredEntryConsumer) ;
+                }) ;
+            }
+        }) ;
+    }
+
+    private void awaitNextTick() throws InterruptedException {
+
+        long nextTickNanoTime = startNanoTime + TimeUnit.MILLISECONDS.toNanos(timingWheel.getCurrentTime() + timingWheel.getTickDuration()) ;
+
+        long remainingNanos ;
+        while ((remainingNanos = nextTickNanoTime - System.nanoTime()) > 0) {
+
+            LockSupport.parkNanos(this, remainingNanos) ;
+
+            if (Thread.interrupted()) throw new InterruptedException("Timing wheel dispatcher interrupted") ;
+        }
+    }
+
+    private void transferJobs() {
+
+        Job job ;
+        while ((job = incomingJobQueue.poll()) != null) {
+
+            TimingWheel.TimerEntry entry = new TimingWheel.TimerEntry(job, toWheelTime(job)) ;
+
+            if (!timingWheel.add(entry)) fire(entry) ;
+        }
+    }
+
+    private void transferEntries() {
+
+        TimingWheel.TimerEntry entry ;
+        while ((entry = rescheduledEntryQueue.poll()) != null) {
+
+            entry.setExpiration(toWheelTime(entry.getJob())) ;
+
+            if (!timingWheel.add(entry)) fire(entry) ;
+        }
+    }
+
+    private long toWheelTime(Job job) {
+
+        // Translate the monotonic start time of the job onto the wheel clock
+        return TimeUnit.NANOSECONDS.toMillis(job.getStartNanoTime() - startNanoTime) ;
+    }
+
+    private void fire(TimingWheel.TimerEntry entry) {
+
+        Job job = entry.getJob() ;
+
+        if (!isRunning.get() || job.isCancelled()) return ;
+
+        executorService.execute(job.getTask()) ;
+
+        // Picked up on the next tick, so a zero delay job cannot spin inside a single tick
+        if (job.reschedule()) rescheduledEntryQueue.offer(entry) ;
+    }
+
+    /**
+     * <p> Cancelled jobs are dropped when their bucket expires, which costs O(1) per job, so no bulk purge is needed </p>
+     */
+    @Override
+    public JobHandle setToJobQueue(Job job) {
+
+        JobHandle jobHandle = new JobHandle(job, () -> {}) ;
+
+        incomingJobQueue.offer(job) ;
+
+        return jobHandle ;
+    }
+
+    @Override
+    public void shutdown() {
+
+        isRunning.set(false) ;
+
+        processingThread.interrupt() ;
+
+        executorService.shutdown() ;
+
+        execute(() -> {
+
+            if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+
+                executorService.shutdownNow() ;
+            }
+        }) ;
+    }
+
+    /**
+     * <b> Exception Handler </b>
+     *
+     * @param handler functional interface to execute code block with throwing InterruptedException
+     */
+    private void execute(InterruptedExceptionHandler handler) {
+
+        try {
+
+            handler.apply() ;
+        } catch (InterruptedException exception) {
+
+            log.error(exception.getMessage()) ;
+
+            executorService.shutdownNow() ;
+
+            Thread.currentThread().interrupt() ;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <b> Token Bucket Rate Limit Class </b>
+ *
+ * <p> Refills at a steady rate up to a burst size, every dispatched job takes one token. The bucket never
+ * blocks, it tells how long to wait for the next token so that the dispatcher can defer the job in its queue
+ * instead of parking a worker. The rate and the burst can be changed at any time, the tokens refilled so far
+ * are kept up to the new burst. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/28
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1) ;
+
+    private final ReentrantLock lock = new ReentrantLock() ;
+    private double permitsPerSecond ;
+    private int burst ;
+    private double tokens ;
+    private long lastRefillNanoTime ;
+
+    /**
+     * @param permitsPerSecond The steady rate of the jobs, 0 holds every job back until the rate is raised
+     * @param burst The jobs allowed at once after a quiet period, the bucket starts full
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+
+        validate(permitsPerSecond, burst) ;
+
+        this.permitsPerSecond = permitsPerSecond ;
+        this.burst = burst ;
+        this.tokens = burst ;
+        this.lastRefillNanoTime = System.nanoTime() ;
+    }
+
+    /**
+     * <p> To change the limit at runtime, a bucket holding more tokens than the new burst is cut down to it </p>
+     */
+    public void setRate(double permitsPerSecond, int burst) {
+
+        validate(permitsPerSecond, burst) ;
+
+        lock.lock() ;
+        try {
+
+            // The time passed so far still refills at the old rate
+            refill(System.nanoTime()) ;
+
+            this.permitsPerSecond = permitsPerSecond ;
+            this.burst = burst ;
+            this.tokens = Math.min(tokens, burst) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * @return 0 if a token is available right now, else the nanoseconds until the next one, Long.MAX_VALUE at a rate of 0
+     */
+    public long getWaitNanos(long nanoTime) {
+
+        lock.lock() ;
+        try {
+
+            refill(nanoTime) ;
+
+            if (tokens >= 1) return 0 ;
+
+            if (permitsPerSecond <= 0) return Long.MAX_VALUE ;
+
+            return (long) Math.ceil((1 - tokens) * NANOS_PER_SECOND / permitsPerSecond) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * <p> To take the token of a dispatched job, callers check {@link #getWaitNanos(long)} first. A change of the
+     * limit in between may leave the bucket in debt, which the next jobs wait off. </p>
+     */
+    public void acquire(long nanoTime) {
+
+        lock.lock() ;
+        try {
+
+            refill(nanoTime) ;
+
+            tokens -= 1 ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    /**
+     * @return The number of whole tokens available right now
+     */
+    public int getAvailableTokens(long nanoTime) {
+
+        lock.lock() ;
+        try {
+
+            refill(nanoTime) ;
+
+            return (int) Math.max(Math.floor(tokens), 0) ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    public double getPermitsPerSecond() {
+
+        lock.lock() ;
+        try {
+
+            return permitsPerSecond ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    public int getBurst() {
+
+        lock.lock() ;
+        try {
+
+            return burst ;
+        } finally {
+            lock.unlock() ;
+        }
+    }
+
+    private void refill(long nanoTime) {
+
+        long elapsedNanos = nanoTime - lastRefillNanoTime ;
+
+        // Callers may pass a time read just before another caller refilled
+        if (elapsedNanos <= 0) return ;
+
+        tokens = Math.min(tokens + elapsedNanos * permitsPerSecond / NANOS_PER_SECOND, burst) ;
+        lastRefillNanoTime = nanoTime ;
+    }
+
+    private static void validate(double permitsPerSecond, int burst) {
+
+        if (!(permitsPerSecond >= 0) || Double.isInfinite(permitsPerSecond)) throw new IllegalArgumentException("Permits per second must be a finite non-negative number: " + permitsPerSecond) ;
+        if (burst < 1) throw new IllegalArgumentException("Burst must be at least 1: " + burst) ;
+    }
+
+    @Override
+    public String toString() {
+
+        return "TokenBucket(" + getPermitsPerSecond() + " per second, burst " + getBurst() + ")" ;
+    }
+}
@@ -1,17 +1,26 @@
 package Component;
 
+import behavior.JobQueue;
 import behavior.TaskScheduler;
 import entity.Job;
+import entity.JobHandle;
+import entity.TriggerMetricsSnapshot;
+import enumeration.ExecutionModeEnum;
 import functionalInterface.InterruptedExceptionHandler;
 import lombok.extern.slf4j.Slf4j;
 import util.FormattedDateTimeUtil;
+import util.MBeanRegistrationUtil;
 
+import javax.management.ObjectName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <b> Task Execution Trigger Class </b>
@@ -23,16 +32,34 @@ import java.util.concurrent.locks.LockSupport;
 public class Trigger implements TaskScheduler {
 
     private final ExecutorService executorService ;
-    private final PriorityBlockingQueue<Job> jobQueue ;
+    private final JobQueue<Job> jobQueue ;
     private final AtomicBoolean isRunning ;
+    private final Thread processingThread ;
+    private final DispatchLagRecorder dispatchLagRecorder ;
+    private final ObjectName mBeanObjectName ;
+    private final AtomicInteger cancelledJobCounter ;
+
+    private static final int PURGE_THRESHOLD = 1024 ;
 
     public Trigger() {
 
-        this.executorService = Executors.newFixedThreadPool(6) ;
-        this.jobQueue = new PriorityBlockingQueue<>() ;
+        this(ExecutionModeEnum.PLATFORM_THREAD) ;
+    }
+
+    public Trigger(ExecutionModeEnum executionMode) {
+
+        this.executorService = executionMode == ExecutionModeEnum.VIRTUAL_THREAD
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(6) ;
+        this.jobQueue = new DelayedJobQueue<>() ;
         this.isRunning = new AtomicBoolean(true) ;
-        Thread processingThread = createProcessingThread() ;
-        processingThread.start() ;
+        this.dispatchLagRecorder = new DispatchLagRecorder() ;
+        this.cancelledJobCounter = new AtomicInteger(0) ;
+        this.processingThread = createProcessingThread() ;
+        this.processingThread.start() ;
+        this.mBeanObjectName = MBeanRegistrationUtil.register(
+                new TriggerMetrics(this::getMetricsSnapshot), "Trigger", MBeanRegistrationUtil.nextInstanceId()
+        ) ;
         log.info("The Trigger was executed at: {}", FormattedDateTimeUtil.getWithBrackets()) ;
     }
 
@@ -46,38 +73,71 @@ public class Trigger implements TaskScheduler {
 
                     Job job = jobQueue.take() ;
 
-                    long currentTime = System.currentTimeMillis() ;
-
-                    if (job.getStartTime() <= currentTime) {
+                    if (job.isCancelled()) return ;
 
-                        executorService.execute(job.getTask()) ;
+                    dispatchLagRecorder.record(System.nanoTime() - job.getStartNanoTime()) ;
 
-                        Job nextJob = new Job(job.getTask(), job.getDelay()) ;
-                        jobQueue.offer(nextJob) ;
-                    } else {
+                    executorService.execute(job.getTask()) ;
 
-                        jobQueue.offer(job) ;
-                        LockSupport.parkUntil(job.getStartTime()) ;
-                    }
+                    if (job.reschedule()) jobQueue.offer(job) ;
                 }) ;
             }
         }) ;
     }
 
+    public TriggerMetricsSnapshot getMetricsSnapshot() {
+
+        return TriggerMetrics.createSnapshot(jobQueue.size(), dispatchLagRecorder, null, executorService, null, -1, -1) ;
+    }
+
+    public DispatchLagRecorder getDispatchLagRecorder() {
+
+        return dispatchLagRecorder ;
+    }
+
     @Override
-    public void setToJobQueue(Job job) {
+    public JobHandle setToJobQueue(Job job) {
+
+        JobHandle jobHandle = new JobHandle(job, this::onJobCancelled) ;
 
         jobQueue.offer(job) ;
+
+        return jobHandle ;
+    }
+
+    @Override
+    public List<JobHandle> setAllToJobQueue(Collection<? extends Job> jobs) {
+
+        List<JobHandle> jobHandles = new ArrayList<>(jobs.size()) ;
+        for (Job job : jobs) jobHandles.add(new JobHandle(job, this::onJobCancelled)) ;
+
+        jobQueue.offerAll(jobs) ;
+
+        return jobHandles ;
+    }
+
+    private void onJobCancelled() {
+
+        int cancelledCounter = cancelledJobCounter.incrementAndGet() ;
+
+        // Tombstones are dropped lazily at the head, sweep them out in bulk once they make up half of the queue
+        if (cancelledCounter >= PURGE_THRESHOLD && cancelledCounter * 2L >= jobQueue.size()
+                && cancelledJobCounter.compareAndSet(cancelledCounter, 0)) {
+
+            jobQueue.purgeCancelled() ;
+        }
     }
 
     public void shutdown() {
 
         isRunning.set(false) ;
 
-        Thread.currentThread().interrupt() ;
+        processingThread.interrupt() ;
 
         executorService.shutdown() ;
 
+        MBeanRegistrationUtil.unregister(mBeanObjectName) ;
+
         execute(() -> {
 
             if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
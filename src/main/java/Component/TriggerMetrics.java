@@ -0,0 +1,89 @@
+package Component;
+
+import behavior.TriggerMetricsMXBean;
+import entity.TriggerMetricsSnapshot;
+import lombok.experimental.Delegate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <b> Trigger Metrics JMX Adapter Class </b>
+ *
+ * <p> Every attribute read takes a fresh snapshot, nothing is computed unless someone polls. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/15
+ */
+public class TriggerMetrics implements TriggerMetricsMXBean {
+
+    private final Supplier<TriggerMetricsSnapshot> snapshotSupplier ;
+
+    public TriggerMetrics(Supplier<TriggerMetricsSnapshot> snapshotSupplier) {
+
+        this.snapshotSupplier = snapshotSupplier ;
+    }
+
+    @Delegate(types = TriggerMetricsMXBean.class)
+    private TriggerMetricsSnapshot snapshot() {
+
+        return snapshotSupplier.get() ;
+    }
+
+    /**
+     * <p> To assemble the snapshot shared by the triggers </p>
+     *
+     * @param queuedJobCounter The number of jobs waiting in the queues
+     * @param dispatchLagRecorder The recorder of the dispatcher hand-off lag
+     * @param startLagRecorder The recorder of the task start lag, null if the trigger does not track it
+     * @param executorService The executor of the workers
+     * @param admissionController The admission controller of a bounded trigger, null if unbounded
+     * @param retriedJobCounter The number of retries scheduled, -1 if the trigger does not retry
+     * @param deniedRetryCounter The number of retries dropped by a retry budget, -1 if the trigger does not retry
+     * @return The metrics snapshot
+     */
+    public static TriggerMetricsSnapshot createSnapshot(int queuedJobCounter, DispatchLagRecorder dispatchLagRecorder,
+                                                        DispatchLagRecorder startLagRecorder, ExecutorService executorService,
+                                                        AdmissionController admissionController, long retriedJobCounter, long deniedRetryCounter) {
+
+        // Percentiles are bucket upper bounds, clamp them so that p99 never reads above the exact max
+        TriggerMetricsSnapshot.TriggerMetricsSnapshotBuilder builder = TriggerMetricsSnapshot.builder()
+                .queuedJobCounter(queuedJobCounter)
+                .dispatchCounter(dispatchLagRecorder.getDispatchCounter())
+                .averageDispatchLagMicros(dispatchLagRecorder.getAverageLag(TimeUnit.MICROSECONDS))
+                .p99DispatchLagMicros(Math.min(dispatchLagRecorder.getLagPercentile(0.99, TimeUnit.MICROSECONDS), dispatchLagRecorder.getMaxLag(TimeUnit.MICROSECONDS)))
+                .maxDispatchLagMicros(dispatchLagRecorder.getMaxLag(TimeUnit.MICROSECONDS))
+                .averageStartLagMicros(startLagRecorder != null ? startLagRecorder.getAverageLag(TimeUnit.MICROSECONDS) : -1)
+                .p99StartLagMicros(startLagRecorder != null ? Math.min(startLagRecorder.getLagPercentile(0.99, TimeUnit.MICROSECONDS), startLagRecorder.getMaxLag(TimeUnit.MICROSECONDS)) : -1)
+                .maxStartLagMicros(startLagRecorder != null ? startLagRecorder.getMaxLag(TimeUnit.MICROSECONDS) : -1)
+                .admittedJobCounter(admissionController != null ? admissionController.getAdmittedJobCounter() : -1)
+                .rejectedJobCounter(admissionController != null ? admissionController.getRejectedJobCounter() : -1)
+                .shedJobCounter(admissionController != null ? admissionController.getShedJobCounter() : -1)
+                .retriedJobCounter(retriedJobCounter)
+                .deniedRetryCounter(deniedRetryCounter) ;
+
+        if (executorService instanceof ThreadPoolExecutor threadPoolExecutor) {
+
+            int activeWorkerCounter = threadPoolExecutor.getActiveCount() ;
+            int maxWorkerPoolSize = threadPoolExecutor.getMaximumPoolSize() ;
+
+            return builder
+                    .activeWorkerCounter(activeWorkerCounter)
+                    .workerPoolSize(threadPoolExecutor.getPoolSize())
+                    .maxWorkerPoolSize(maxWorkerPoolSize)
+                    .workerQueueSize(threadPoolExecutor.getQueue().size())
+                    .workerPoolSaturation((double) activeWorkerCounter / maxWorkerPoolSize)
+                    .build() ;
+        }
+
+        return builder
+                .activeWorkerCounter(-1)
+                .workerPoolSize(-1)
+                .maxWorkerPoolSize(-1)
+                .workerQueueSize(-1)
+                .workerPoolSaturation(-1)
+                .build() ;
+    }
+}
@@ -0,0 +1,217 @@
+package Component;
+
+import entity.EnhancedJob;
+import entity.JobHandle;
+import enumeration.RecurrenceModeEnum;
+import enumeration.TaskStatusEnum;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <b> Job Dependency Graph Workflow Class </b>
+ *
+ * <p> A directed acyclic graph of one-shot jobs on an enhanced trigger. A job is scheduled the moment the
+ * completion of its last dependency is reported, so nothing polls and independent branches run side by side
+ * on the workers. Every job retries on its own settings, a job that still fails in the end skips all of its
+ * downstream jobs while the unrelated branches carry on. </p>
+ *
+ * <p> Dependencies must be added before the jobs depending on them, which rules out cycles. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/26
+ */
+@Slf4j
+public class Workflow {
+
+    private static final int PRIORITY_LEVEL_INIT = 1 ;
+    private static final int MAX_RETRY_COUNTER_INIT = 0 ;
+
+    private final EnhancedTrigger enhancedTrigger ;
+    private final Map<String, WorkflowStep> workflowSteps ;
+    private final AtomicInteger remainingStepCounter ;
+    private final CompletableFuture<Map<String, TaskStatusEnum>> completion ;
+    private boolean isStarted ;
+    private volatile boolean isCancelled ;
+
+    public Workflow(EnhancedTrigger enhancedTrigger) {
+
+        this.enhancedTrigger = enhancedTrigger ;
+        this.workflowSteps = new LinkedHashMap<>() ;
+        this.remainingStepCounter = new AtomicInteger(0) ;
+        this.completion = new CompletableFuture<>() ;
+    }
+
+    public Workflow addJob(String name, Runnable task, String... dependencies) {
+
+        return addJob(name, task, PRIORITY_LEVEL_INIT, MAX_RETRY_COUNTER_INIT, dependencies) ;
+    }
+
+    /**
+     * @param name The name of the job, unique within the workflow
+     * @param task The task to be executed once all dependencies completed
+     * @param priorityLevel The priority level of the job
+     * @param maxRetryCounter The retries of the job before it fails and skips its downstream jobs
+     * @param dependencies The names of the jobs that must complete first, all already added
+     */
+    public synchronized Workflow addJob(String name, Runnable task, int priorityLevel, int maxRetryCounter, String... dependencies) {
+
+        if (isStarted) throw new IllegalStateException("The workflow has already been started") ;
+        if (workflowSteps.containsKey(name)) throw new IllegalArgumentException("Duplicate workflow job name: " + name) ;
+
+        WorkflowStep workflowStep = new WorkflowStep(name, task, priorityLevel, maxRetryCounter, dependencies.length) ;
+
+        for (String dependency : dependencies) {
+
+            WorkflowStep upstreamStep = workflowSteps.get(dependency) ;
+
+            if (upstreamStep == null) throw new IllegalArgumentException("Unknown dependency " + dependency + " of workflow job " + name + ", add it first") ;
+
+            upstreamStep.downstreamSteps.add(workflowStep) ;
+        }
+
+        workflowSteps.put(name, workflowStep) ;
+
+        return this ;
+    }
+
+    /**
+     * <p> To schedule the jobs without dependencies, the rest follow as their dependencies complete </p>
+     *
+     * @return The future of the final status of every job, COMPLETED, FAILED or CANCELLED for the skipped ones
+     */
+    public synchronized CompletableFuture<Map<String, TaskStatusEnum>> start() {
+
+        if (isStarted) throw new IllegalStateException("The workflow has already been started") ;
+
+        isStarted = true ;
+        remainingStepCounter.set(workflowSteps.size()) ;
+
+        if (workflowSteps.isEmpty()) completion.complete(Map.of()) ;
+
+        // Collected before any launch, a root completing right away already launches the jobs depending on it
+        List<WorkflowStep> rootSteps = new ArrayList<>() ;
+        for (WorkflowStep workflowStep : workflowSteps.values()) {
+
+            if (workflowStep.remainingDependencyCounter.get() == 0) rootSteps.add(workflowStep) ;
+        }
+
+        rootSteps.forEach(this::launch) ;
+
+        return completion ;
+    }
+
+    /**
+     * <p> To cancel every job not finished yet, a running job ends its current execution but is neither retried nor followed </p>
+     */
+    public void cancel() {
+
+        isCancelled = true ;
+
+        for (WorkflowStep workflowStep : workflowSteps.values()) {
+
+            JobHandle jobHandle = workflowStep.jobHandle ;
+
+            if (jobHandle != null) jobHandle.cancel() ;
+
+            finish(workflowStep, TaskStatusEnum.CANCELLED) ;
+        }
+    }
+
+    private void launch(WorkflowStep workflowStep) {
+
+        if (workflowStep.finalStatus.get() != null) return ;
+
+        if (isCancelled) {
+
+            finish(workflowStep, TaskStatusEnum.CANCELLED) ;
+
+            return ;
+        }
+
+        EnhancedJob enhancedJob = new EnhancedJob(workflowStep.task, 0, workflowStep.priorityLevel, workflowStep.maxRetryCounter) ;
+        enhancedJob.setRecurrenceMode(RecurrenceModeEnum.ONE_SHOT) ;
+        enhancedJob.setCompletionListener(taskStatus -> finish(workflowStep, taskStatus)) ;
+
+        enhancedTrigger.submitToJobQueue(enhancedJob).whenComplete((jobHandle, throwable) -> {
+
+            if (throwable != null) {
+
+                log.error("Workflow job {} could not be scheduled: {}", workflowStep.name, throwable.getMessage()) ;
+
+                finish(workflowStep, TaskStatusEnum.FAILED) ;
+
+                return ;
+            }
+
+            workflowStep.jobHandle = jobHandle ;
+
+            // A cancel that ran before the handle was known could not reach the job
+            if (isCancelled) jobHandle.cancel() ;
+        }) ;
+    }
+
+    private void finish(WorkflowStep workflowStep, TaskStatusEnum taskStatus) {
+
+        if (!workflowStep.finalStatus.compareAndSet(null, taskStatus)) return ;
+
+        for (WorkflowStep downstreamStep : workflowStep.downstreamSteps) {
+
+            if (taskStatus != TaskStatusEnum.COMPLETED) finish(downstreamStep, TaskStatusEnum.CANCELLED) ;
+            else if (downstreamStep.remainingDependencyCounter.decrementAndGet() == 0) launch(downstreamStep) ;
+        }
+
+        if (remainingStepCounter.decrementAndGet() == 0) completion.complete(getTaskStatuses()) ;
+    }
+
+    /**
+     * @return The status of every job in the order they were added, PENDING for the jobs not scheduled yet
+     */
+    public Map<String, TaskStatusEnum> getTaskStatuses() {
+
+        Map<String, TaskStatusEnum> taskStatuses = new LinkedHashMap<>() ;
+        for (WorkflowStep workflowStep : workflowSteps.values()) taskStatuses.put(workflowStep.name, workflowStep.getTaskStatus()) ;
+
+        return Collections.unmodifiableMap(taskStatuses) ;
+    }
+
+    public CompletableFuture<Map<String, TaskStatusEnum>> getCompletion() {
+
+        return completion ;
+    }
+
+    private static class WorkflowStep {
+
+        private final String name ;
+        private final Runnable task ;
+        private final int priorityLevel ;
+        private final int maxRetryCounter ;
+        private final List<WorkflowStep> downstreamSteps = new ArrayList<>() ;
+        private final AtomicInteger remainingDependencyCounter ;
+        private final AtomicReference<TaskStatusEnum> finalStatus = new AtomicReference<>() ;
+        private volatile JobHandle jobHandle ;
+
+        WorkflowStep(String name, Runnable task, int priorityLevel, int maxRetryCounter, int dependencyCounter) {
+
+            this.name = name ;
+            this.task = task ;
+            this.priorityLevel = priorityLevel ;
+            this.maxRetryCounter = maxRetryCounter ;
+            this.remainingDependencyCounter = new AtomicInteger(dependencyCounter) ;
+        }
+
+        TaskStatusEnum getTaskStatus() {
+
+            if (finalStatus.get() != null) return finalStatus.get() ;
+
+            return jobHandle != null ? jobHandle.getTaskStatus() : TaskStatusEnum.PENDING ;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package behavior;
+
+/**
+ * <b> Adaptive Concurrency Limit Common Behavior Interface </b>
+ *
+ * <p> Derives the permit number of the TaskResourceManager from the completed executions, which hands every
+ * sample over under its own lock, so implementations need no synchronization. An instance keeps state and
+ * belongs to a single trigger. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/20
+ */
+public interface ConcurrencyLimit {
+
+    int getLimit() ;
+
+    int getMaxLimit() ;
+
+    /**
+     * @param rttNanos The time from acquiring the permit to releasing it, including the wait for a worker
+     * @param inFlight The number of permits held when the execution completed, including its own
+     * @param dropped Whether the execution failed or timed out
+     * @return The new limit
+     */
+    int onSample(long rttNanos, int inFlight, boolean dropped) ;
+}
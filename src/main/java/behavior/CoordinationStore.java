@@ -0,0 +1,43 @@
+package behavior;
+
+import java.util.Map;
+
+/**
+ * <b> Cluster Coordination Store Common Behavior Interface </b>
+ *
+ * <p> Holds the time-bounded leases the cluster nodes coordinate through, every operation must be atomic
+ * across all nodes sharing the store. Expiry times are epoch milliseconds, so the clocks of the nodes must
+ * stay well within a lease time of each other. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/23
+ */
+public interface CoordinationStore {
+
+    /**
+     * <p> To take a lease that is free or expired, or to extend a lease already held by the owner </p>
+     *
+     * @param leaseKey The key of the lease
+     * @param ownerId The id of the node asking for the lease
+     * @param leaseTime The time in milliseconds the lease stays valid from now
+     * @return Whether the owner holds the lease now
+     */
+    boolean tryAcquireLease(String leaseKey, String ownerId, long leaseTime) ;
+
+    /**
+     * <p> To hand a lease back before it expires, ignored unless the owner holds it </p>
+     */
+    void releaseLease(String leaseKey, String ownerId) ;
+
+    /**
+     * @param keyPrefix The prefix of the lease keys to be listed
+     * @return The owner of every unexpired lease under the prefix, by lease key
+     */
+    Map<String, String> getLeases(String keyPrefix) ;
+
+    /**
+     * @param keyPrefix The prefix of the lease keys to be listed
+     * @return The expire time of every unexpired lease under the prefix, by lease key
+     */
+    Map<String, Long> getLeaseExpireTimes(String keyPrefix) ;
+}
@@ -0,0 +1,50 @@
+package behavior;
+
+import entity.Job;
+
+import java.util.Collection;
+
+/**
+ * <b> Trigger Job Queue Common Behavior Interface </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/09
+ */
+public interface JobQueue<T extends Job> {
+
+    void offer(T job) ;
+
+    /**
+     * <p> To add a whole batch of jobs, implementations take their lock and wake the dispatcher only once </p>
+     *
+     * @param jobs The jobs to be added
+     */
+    default void offerAll(Collection<? extends T> jobs) {
+
+        for (T job : jobs) offer(job) ;
+    }
+
+    /**
+     * <p> To wait until a job is due and remove it from the queue </p>
+     *
+     * @return The next job to be dispatched
+     * @throws InterruptedException if interrupted while waiting
+     */
+    T take() throws InterruptedException ;
+
+    T peek() ;
+
+    /**
+     * <p> To sweep every cancelled job out of the queue in a single pass </p>
+     *
+     * @return The number of removed jobs
+     */
+    int purgeCancelled() ;
+
+    int size() ;
+
+    default boolean isEmpty() {
+
+        return size() == 0 ;
+    }
+}
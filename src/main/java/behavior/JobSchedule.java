@@ -0,0 +1,20 @@
+package behavior;
+
+/**
+ * <b> Recurring Job Schedule Common Behavior Interface </b>
+ *
+ * <p> Replaces the fixed delay of a job with a calendar, implementations are shared by many jobs and must be thread-safe </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/18
+ */
+public interface JobSchedule {
+
+    long NO_NEXT_FIRE_TIME = -1 ;
+
+    /**
+     * @param afterTime The epoch millisecond to search from, exclusive
+     * @return The epoch millisecond of the next fire time, or {@link #NO_NEXT_FIRE_TIME} if the schedule is exhausted
+     */
+    long getNextFireTime(long afterTime) ;
+}
@@ -0,0 +1,43 @@
+package behavior;
+
+import entity.DurableJobRecord;
+import entity.EnhancedJob;
+
+import java.util.List;
+
+/**
+ * <b> Durable Job Store Common Behavior Interface </b>
+ *
+ * <p> Only jobs carrying a task name are durable, every event overwrites the stored state of its job,
+ * so replaying an event twice is harmless. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/17
+ */
+public interface JobStore {
+
+    /**
+     * <p> To persist a newly scheduled job, assigning its job id </p>
+     *
+     * @param enhancedJob The durable job to be stored
+     */
+    void recordSchedule(EnhancedJob enhancedJob) ;
+
+    void recordReschedule(EnhancedJob enhancedJob) ;
+
+    void recordComplete(EnhancedJob enhancedJob) ;
+
+    void recordCancel(EnhancedJob enhancedJob) ;
+
+    /**
+     * @return Every job still scheduled when the store was last written
+     */
+    List<DurableJobRecord> recover() ;
+
+    /**
+     * <p> To fold the journal into a fresh snapshot of the live jobs and start an empty journal </p>
+     */
+    void compact() ;
+
+    void close() ;
+}
@@ -0,0 +1,32 @@
+package behavior;
+
+import java.util.Map;
+
+/**
+ * <b> Task Resource Manager Metrics JMX Interface </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/15
+ */
+public interface TaskResourceMetricsMXBean {
+
+    int getMaxConcurrentTaskCounter() ;
+
+    int getConcurrencyLimit() ;
+
+    int getInFlightTaskCounter() ;
+
+    int getAvailablePermits() ;
+
+    int getPermitWaitingThreadCounter() ;
+
+    long getPermitAcquireCounter() ;
+
+    long getPermitTimeoutCounter() ;
+
+    long getP50PermitWaitMicros() ;
+
+    long getP99PermitWaitMicros() ;
+
+    Map<String, Integer> getJobGroupInFlightTaskCounterMap() ;
+}
@@ -1,6 +1,13 @@
 package behavior;
 
 import entity.Job;
+import entity.JobHandle;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * <b> Task Scheduler Trigger Common Behavior Interface </b>
@@ -10,7 +17,43 @@ import entity.Job;
  */
 public interface TaskScheduler {
 
-    void setToJobQueue(Job job) ;
+    /**
+     * @param job The job to be scheduled
+     * @return The handle to cancel or inspect the job
+     */
+    JobHandle setToJobQueue(Job job) ;
+
+    /**
+     * <p> To schedule a job without ever failing on the spot, a bounded trigger at its capacity completes the
+     * future once there is room, or fails it with a {@link RejectedExecutionException} </p>
+     *
+     * @param job The job to be scheduled
+     * @return The future of the handle, already completed by unbounded triggers
+     */
+    default CompletableFuture<JobHandle> submitToJobQueue(Job job) {
+
+        try {
+
+            return CompletableFuture.completedFuture(setToJobQueue(job)) ;
+        } catch (RuntimeException exception) {
+
+            return CompletableFuture.failedFuture(exception) ;
+        }
+    }
+
+    /**
+     * <p> To schedule a whole batch of jobs, heap backed triggers bulk load them under a single lock </p>
+     *
+     * @param jobs The jobs to be scheduled
+     * @return The handles in the order of the given jobs
+     */
+    default List<JobHandle> setAllToJobQueue(Collection<? extends Job> jobs) {
+
+        List<JobHandle> jobHandles = new ArrayList<>(jobs.size()) ;
+        for (Job job : jobs) jobHandles.add(setToJobQueue(job)) ;
+
+        return jobHandles ;
+    }
 
     void shutdown() ;
 }
@@ -0,0 +1,50 @@
+package behavior;
+
+/**
+ * <b> Trigger Metrics JMX Interface </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/15
+ */
+public interface TriggerMetricsMXBean {
+
+    int getQueuedJobCounter() ;
+
+    long getDispatchCounter() ;
+
+    long getAverageDispatchLagMicros() ;
+
+    long getP99DispatchLagMicros() ;
+
+    long getMaxDispatchLagMicros() ;
+
+    // Start lag gauges, -1 when the trigger hands tasks to the workers without tracking their start
+    long getAverageStartLagMicros() ;
+
+    long getP99StartLagMicros() ;
+
+    long getMaxStartLagMicros() ;
+
+    // Admission gauges, -1 when the trigger is unbounded
+    int getAdmittedJobCounter() ;
+
+    long getRejectedJobCounter() ;
+
+    long getShedJobCounter() ;
+
+    // Retry gauges, -1 when the trigger does not retry
+    long getRetriedJobCounter() ;
+
+    long getDeniedRetryCounter() ;
+
+    // Worker pool gauges, -1 when the workers are not a thread pool, e.g. virtual threads
+    int getActiveWorkerCounter() ;
+
+    int getWorkerPoolSize() ;
+
+    int getMaxWorkerPoolSize() ;
+
+    int getWorkerQueueSize() ;
+
+    double getWorkerPoolSaturation() ;
+}
@@ -0,0 +1,37 @@
+package entity;
+
+import enumeration.MisfirePolicyEnum;
+import enumeration.RecurrenceModeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * <b> Durable Job Record Entity Class </b>
+ *
+ * <p> The persisted state of a job, the task itself is rebuilt from its task name on recovery </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/17
+ */
+@Data
+@AllArgsConstructor
+public class DurableJobRecord {
+
+    private final long jobId ;
+    private final String taskName ;
+    private final String jobKey ;
+    private final long delay ;
+    private final int priorityLevel ;
+    private final int maxRetryCounter ;
+    private int retryCounter ;
+    // Epoch millisecond, the monotonic clock does not survive a restart
+    private long nextFireTime ;
+    // Only set for cron jobs, whose fixed delay is unused
+    private final String cronExpression ;
+    private final String timeZone ;
+    private final RecurrenceModeEnum recurrenceMode ;
+    private final MisfirePolicyEnum misfirePolicy ;
+    private final String jobGroup ;
+    private final long timeout ;
+    private final long deadline ;
+}
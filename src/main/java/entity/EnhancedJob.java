@@ -1,8 +1,13 @@
 package entity;
 
+import behavior.JobSchedule;
 import enumeration.TaskStatusEnum;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * <b> Enhanced Job Entity Class </b>
@@ -10,18 +15,35 @@ import lombok.EqualsAndHashCode;
  * @author Aki Chou
  * @date 2025/02/02
  */
-@EqualsAndHashCode(callSuper = true)
-@Data
+@Getter
+@Setter
+@ToString
 public class EnhancedJob extends Job {
 
     private final int priorityLevel ;
     private TaskStatusEnum taskStatus ;
     private int retryCounter ;
     private final int maxRetryCounter ;
+    // Backoff before the last retry in milliseconds, the next one is jittered around it
+    private long retryDelay ;
 
     private long executionTime ;
     private String errorMessage ;
 
+    // Stable name of the task in the TaskRegistry, only jobs carrying one are persisted by a job store
+    private String taskName ;
+    // Assigned by the job store on the first schedule, 0 while not persisted
+    private long jobId ;
+    // Name of the JobGroup sharing its permits, null for the default group
+    private String jobGroup ;
+    // Longest running time of an execution in milliseconds, 0 for the default timeout of the trigger
+    private long timeout ;
+    // Time in milliseconds after its slot by which an execution must have completed, 0 for no deadline
+    private long deadline ;
+    // Told the final status once the job is out of executions: COMPLETED, FAILED or CANCELLED, a late cancel may tell CANCELLED again
+    @ToString.Exclude
+    private Consumer<TaskStatusEnum> completionListener ;
+
     public EnhancedJob(Runnable task, long delay, int priorityLevel, int maxRetryCounter) {
 
         super(task, delay) ;
@@ -31,6 +53,58 @@ public class EnhancedJob extends Job {
         this.retryCounter = 0 ;
     }
 
+    public EnhancedJob(Runnable task, JobSchedule jobSchedule, int priorityLevel, int maxRetryCounter) {
+
+        super(task, jobSchedule) ;
+        this.priorityLevel = priorityLevel ;
+        this.taskStatus = TaskStatusEnum.PENDING ;
+        this.maxRetryCounter = maxRetryCounter ;
+        this.retryCounter = 0 ;
+    }
+
+    public boolean isDurable() {
+
+        return taskName != null ;
+    }
+
+    public boolean hasDeadline() {
+
+        return deadline > 0 ;
+    }
+
+    /**
+     * <p> The deadline hangs on the slot rather than the start, so the retries of an execution share its deadline </p>
+     */
+    public long getDeadlineNanoTime() {
+
+        return getScheduledNanoTime() + TimeUnit.MILLISECONDS.toNanos(deadline) ;
+    }
+
+    /**
+     * @return Whether the current execution can no longer complete in time, a retry would be pointless
+     */
+    public boolean isDeadlineExceeded(long currentNanoTime) {
+
+        return hasDeadline() && getDeadlineNanoTime() - currentNanoTime <= 0 ;
+    }
+
+    /**
+     * <p> Earliest deadline first order, jobs without a deadline come last in their natural order </p>
+     */
+    public static int compareDeadline(EnhancedJob enhancedJob1, EnhancedJob enhancedJob2) {
+
+        if (enhancedJob1.hasDeadline() != enhancedJob2.hasDeadline()) return enhancedJob1.hasDeadline() ? -1 : 1 ;
+
+        if (enhancedJob1.hasDeadline()) {
+
+            int deadlineCompare = Long.compare(enhancedJob1.getDeadlineNanoTime() - enhancedJob2.getDeadlineNanoTime(), 0) ;
+
+            if (deadlineCompare != 0) return deadlineCompare ;
+        }
+
+        return enhancedJob1.compareTo(enhancedJob2) ;
+    }
+
     @Override
     public int compareTo(Job o) {
 
@@ -0,0 +1,82 @@
+package entity;
+
+import Component.ClusterNode;
+import Component.RetryBudget;
+import Component.TaskRegistry;
+import behavior.ConcurrencyLimit;
+import behavior.JobStore;
+import enumeration.AdmissionPolicyEnum;
+import enumeration.ExecutionModeEnum;
+import enumeration.QueueModeEnum;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.List;
+
+/**
+ * <b> Enhanced Trigger Configuration Entity Class </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/11
+ */
+@Getter
+@Builder
+public class EnhancedTriggerConfig {
+
+    @Builder.Default
+    private final QueueModeEnum queueMode = QueueModeEnum.PRIORITY ;
+
+    @Builder.Default
+    private final ExecutionModeEnum executionMode = ExecutionModeEnum.PLATFORM_THREAD ;
+
+    // Permit number of the TaskResourceManager, raise it for blocking I/O jobs on virtual threads
+    @Builder.Default
+    private final int maxConcurrentTaskCounter = Runtime.getRuntime().availableProcessors() ;
+
+    // Optional adaptive limit replacing maxConcurrentTaskCounter, e.g. AimdConcurrencyLimit or GradientConcurrencyLimit
+    private final ConcurrencyLimit concurrencyLimit ;
+
+    // Bulkheads with their own permit quota and share of the dispatch, jobs name their group with EnhancedJob#setJobGroup
+    @Singular
+    private final List<JobGroup> jobGroups ;
+
+    // Number of independent dispatcher thread and job queue pairs sharing the workers
+    @Builder.Default
+    private final int shardCounter = 1 ;
+
+    // Maximum number of live jobs, counted from scheduling until cancelled or out of executions, unbounded by default
+    @Builder.Default
+    private final int admissionCapacity = Integer.MAX_VALUE ;
+
+    @Builder.Default
+    private final AdmissionPolicyEnum admissionPolicy = AdmissionPolicyEnum.SHED_LOWEST_PRIORITY ;
+
+    // Optional persistence of durable jobs, the trigger recovers the stored jobs on construction
+    private final JobStore jobStore ;
+
+    // Task factories of durable jobs, stored jobs of a task registered after the recovery are scheduled on its registration
+    @Builder.Default
+    private final TaskRegistry taskRegistry = new TaskRegistry() ;
+
+    // Bounds of the jittered backoff between the retries of a failed job in milliseconds
+    @Builder.Default
+    private final long retryBaseDelay = 100 ;
+
+    @Builder.Default
+    private final long retryMaxDelay = 60000 ;
+
+    // Optional cap on the retries of all jobs, unbounded when absent
+    private final RetryBudget retryBudget ;
+
+    // Longest running time in milliseconds of the executions of jobs without their own timeout
+    @Builder.Default
+    private final long defaultTimeout = 60000 ;
+
+    // Interval between two compactions of the job store in milliseconds
+    @Builder.Default
+    private final long snapshotInterval = 60000 ;
+
+    // Optional cluster membership, keyed jobs only execute on the node owning their partition, unkeyed jobs stay node-local
+    private final ClusterNode clusterNode ;
+}
@@ -1,27 +1,210 @@
 package entity;
 
-import lombok.Data;
+import behavior.JobSchedule;
+import enumeration.MisfirePolicyEnum;
+import enumeration.RecurrenceModeEnum;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * <b> Job Entity Class </b>
  *
+ * <p> A job is rescheduled in place and tracked in queues and sets while its fields change, so it keeps the
+ * identity equality of Object instead of comparing its fields. </p>
+ *
  * @author Aki Chou
  * @date 2025/02/01
  */
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor(force = true)
 public class Job implements Comparable<Job> {
 
     private final Runnable task ;
-    private final long startTime ;
+    // Mutable so that a recurring job is rescheduled in place, only through reschedule() while out of any queue
+    @Setter(AccessLevel.NONE)
+    private long startTime ;
     private final long delay ;
+    @Setter(AccessLevel.NONE)
+    private long startNanoTime ;
+    private final long delayNanos ;
+    // Optional calendar replacing the fixed delay, e.g. a cron expression
+    private final JobSchedule jobSchedule ;
+    // The slot the job is due for, a retry delays the start but keeps the slot so a fixed rate grid never shifts
+    @Setter(AccessLevel.NONE)
+    private long scheduledNanoTime ;
+    // Only read for jobs with a fixed delay and no job schedule
+    private RecurrenceModeEnum recurrenceMode = RecurrenceModeEnum.FIXED_DELAY ;
+    private MisfirePolicyEnum misfirePolicy = MisfirePolicyEnum.FIRE_ONCE ;
+    // Optional stable identity, jobs sharing a key always land on the same shard
+    private String jobKey ;
+    @ToString.Exclude
+    private JobHandle jobHandle ;
 
     public Job(Runnable task, long delay) {
 
+        this(task, delay, TimeUnit.MILLISECONDS) ;
+    }
+
+    /**
+     * @param task The task to be executed
+     * @param delay The delay before every execution, sub-millisecond delays are kept on the monotonic deadline
+     * @param timeUnit The time unit of the delay
+     */
+    public Job(Runnable task, long delay, TimeUnit timeUnit) {
+
         this.task = task ;
-        this.startTime = System.currentTimeMillis() + delay ;
-        this.delay = delay ;
+        this.delay = timeUnit.toMillis(delay) ;
+        this.delayNanos = timeUnit.toNanos(delay) ;
+        this.jobSchedule = null ;
+        this.startTime = System.currentTimeMillis() + this.delay ;
+        this.startNanoTime = System.nanoTime() + this.delayNanos ;
+        this.scheduledNanoTime = this.startNanoTime ;
+    }
+
+    /**
+     * @param task The task to be executed
+     * @param jobSchedule The schedule giving every fire time of the job
+     */
+    public Job(Runnable task, JobSchedule jobSchedule) {
+
+        long currentTime = System.currentTimeMillis() ;
+        long nextFireTime = jobSchedule.getNextFireTime(currentTime) ;
+
+        if (nextFireTime == JobSchedule.NO_NEXT_FIRE_TIME) throw new IllegalArgumentException("The job schedule never fires: " + jobSchedule) ;
+
+        this.task = task ;
+        this.delay = 0 ;
+        this.delayNanos = 0 ;
+        this.jobSchedule = jobSchedule ;
+        this.startTime = nextFireTime ;
+        this.startNanoTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(nextFireTime - currentTime) ;
+        this.scheduledNanoTime = this.startNanoTime ;
+    }
+
+    /**
+     * <p> To move the job onto its next execution, keeping its identity instead of allocating a new job </p>
+     *
+     * @return false if the schedule of the job is exhausted, the job must not be queued again
+     */
+    public boolean reschedule() {
+
+        if (jobSchedule != null) return rescheduleOnJobSchedule() ;
+
+        if (recurrenceMode == RecurrenceModeEnum.ONE_SHOT) return false ;
+
+        if (recurrenceMode == RecurrenceModeEnum.FIXED_RATE && delayNanos > 0) {
+
+            rescheduleAtFixedRate() ;
+
+            return true ;
+        }
+
+        reschedule(delayNanos) ;
+        this.scheduledNanoTime = this.startNanoTime ;
+
+        return true ;
+    }
+
+    private void rescheduleAtFixedRate() {
+
+        long currentNanoTime = System.nanoTime() ;
+        long nextNanoTime = scheduledNanoTime + delayNanos ;
+
+        if (nextNanoTime <= currentNanoTime) {
+
+            long latestMissedNanoTime = scheduledNanoTime + (currentNanoTime - scheduledNanoTime) / delayNanos * delayNanos ;
+
+            nextNanoTime = switch (misfirePolicy) {
+
+                case FIRE_ONCE -> latestMissedNanoTime ;
+                case FIRE_ALL -> nextNanoTime ;
+                case SKIP_TO_NEXT -> latestMissedNanoTime + delayNanos ;
+            } ;
+        }
+
+        this.scheduledNanoTime = nextNanoTime ;
+        this.startNanoTime = nextNanoTime ;
+        this.startTime = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(nextNanoTime - currentNanoTime) ;
+    }
+
+    private boolean rescheduleOnJobSchedule() {
+
+        long currentTime = System.currentTimeMillis() ;
+        // Searched from the slot just fired, so the monotonic deadline running slightly ahead of the wall clock cannot fire it twice
+        long nextFireTime = jobSchedule.getNextFireTime(startTime) ;
+
+        if (nextFireTime != JobSchedule.NO_NEXT_FIRE_TIME && nextFireTime <= currentTime) {
+
+            nextFireTime = switch (misfirePolicy) {
+
+                case FIRE_ONCE -> currentTime ;
+                case FIRE_ALL -> nextFireTime ;
+                case SKIP_TO_NEXT -> jobSchedule.getNextFireTime(currentTime) ;
+            } ;
+        }
+
+        if (nextFireTime == JobSchedule.NO_NEXT_FIRE_TIME) return false ;
+
+        this.startTime = nextFireTime ;
+        this.startNanoTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(nextFireTime - currentTime) ;
+        this.scheduledNanoTime = this.startNanoTime ;
+
+        return true ;
+    }
+
+    /**
+     * <p> To move both the start and the slot of the job onto the given time, e.g. for a job restored from a job store.
+     * A time in the past is due right away and the misfire policy handles the slots missed since. </p>
+     *
+     * @param fireTime The epoch millisecond of the next execution
+     */
+    public void resetFireTime(long fireTime) {
+
+        resetFireTime(fireTime, System.currentTimeMillis(), System.nanoTime()) ;
+    }
+
+    /**
+     * <p> To reset the fire time against clocks read once by the caller, e.g. for a whole batch of restored jobs </p>
+     *
+     * @param currentTime The current epoch millisecond
+     * @param currentNanoTime The monotonic time read along with it
+     */
+    public void resetFireTime(long fireTime, long currentTime, long currentNanoTime) {
+
+        this.startTime = fireTime ;
+        this.startNanoTime = currentNanoTime + TimeUnit.MILLISECONDS.toNanos(fireTime - currentTime) ;
+        this.scheduledNanoTime = this.startNanoTime ;
+    }
+
+    /**
+     * <p> To move the job onto an execution after the given delay, e.g. a retry, its own recurring delay and slot stay untouched </p>
+     *
+     * @param delayNanos The delay from now in nanoseconds
+     */
+    public void reschedule(long delayNanos) {
+
+        this.startTime = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(delayNanos) ;
+        this.startNanoTime = System.nanoTime() + delayNanos ;
+    }
+
+    /**
+     * @return The job key, or the task class name for a job scheduled without a key
+     */
+    public String getTaskId() {
+
+        return jobKey != null ? jobKey : task.getClass().getName() ;
+    }
+
+    public boolean isCancelled() {
+
+        return jobHandle != null && jobHandle.isCancelled() ;
     }
 
     @Override
@@ -0,0 +1,40 @@
+package entity;
+
+import Component.RetryBudget;
+import Component.TokenBucket;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * <b> Job Group Entity Class </b>
+ *
+ * <p> A bulkhead for the jobs tagged with its name: they never hold more than its own quota of permits,
+ * and while several groups wait for permits each gets a share in proportion to its weight. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/21
+ */
+@Getter
+@Builder
+@ToString
+public class JobGroup {
+
+    // Jobs without a group or with an unknown one belong to this group, configure it under the name to change its quota or weight
+    public static final String DEFAULT_GROUP_NAME = "default" ;
+
+    private final String name ;
+
+    // Permits the group may hold at once, within the limit shared by all groups
+    @Builder.Default
+    private final int maxConcurrentTaskCounter = Integer.MAX_VALUE ;
+
+    @Builder.Default
+    private final int weight = 1 ;
+
+    // Optional cap on the retries of the group, replaces the retry budget of the trigger for its jobs
+    private final RetryBudget retryBudget ;
+
+    // Optional cap on the dispatch rate of the group, its jobs over the rate wait in the group instead of on a worker
+    private final TokenBucket rateLimit ;
+}
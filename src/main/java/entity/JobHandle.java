@@ -0,0 +1,74 @@
+package entity;
+
+import enumeration.TaskStatusEnum;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <b> Scheduled Job Handle Entity Class </b>
+ *
+ * <p> Returned when a job is scheduled, recurring jobs are rescheduled in place so the handle keeps pointing
+ * at the same job across its executions. Cancelling only
+ * sets a tombstone in O(1), the trigger drops the job when it next reaches the head of its queue and
+ * sweeps tombstones out in bulk once they pile up. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/13
+ */
+public class JobHandle {
+
+    private final AtomicBoolean cancelled ;
+    private final Runnable cancellationListener ;
+    private final Job job ;
+
+    /**
+     * @param job The job to be handled
+     * @param cancellationListener The callback of the owning trigger, invoked once on cancellation
+     */
+    public JobHandle(Job job, Runnable cancellationListener) {
+
+        this.cancelled = new AtomicBoolean(false) ;
+        this.cancellationListener = cancellationListener ;
+        this.job = job ;
+        job.setJobHandle(this) ;
+    }
+
+    /**
+     * <p> To stop the job from being executed or rescheduled again </p>
+     *
+     * @return false if the job had already been cancelled
+     */
+    public boolean cancel() {
+
+        if (!cancelled.compareAndSet(false, true)) return false ;
+
+        cancellationListener.run() ;
+
+        return true ;
+    }
+
+    public boolean isCancelled() {
+
+        return cancelled.get() ;
+    }
+
+    public TaskStatusEnum getTaskStatus() {
+
+        if (cancelled.get()) return TaskStatusEnum.CANCELLED ;
+
+        return job instanceof EnhancedJob enhancedJob ? enhancedJob.getTaskStatus() : TaskStatusEnum.PENDING ;
+    }
+
+    /**
+     * @return The epoch millisecond of the next execution, or -1 once cancelled
+     */
+    public long getNextFireTime() {
+
+        return cancelled.get() ? -1 : job.getStartTime() ;
+    }
+
+    public Job getJob() {
+
+        return job ;
+    }
+}
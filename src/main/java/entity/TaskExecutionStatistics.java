@@ -1,35 +1,108 @@
 package entity;
 
-import lombok.Data;
+import util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * <b> Task Execution Statistics Entity Class </b>
  *
+ * <p> Counters are striped {@link LongAdder}s and latencies go to lock-free histograms, so workers
+ * recording concurrently never lose an update nor contend on a lock. </p>
+ *
  * @author Aki Chou
  * @date 2025/02/02
  */
-@Data
 public class TaskExecutionStatistics {
 
-    private long totalExecutionTime ;
-    private int successCounter ;
-    private int failCounter ;
-    private int retryCounter ;
+    private final LongAdder totalExecutionTime = new LongAdder() ;
+    private final LongAdder successCounter = new LongAdder() ;
+    private final LongAdder failCounter = new LongAdder() ;
+    private final LongAdder retryCounter = new LongAdder() ;
+
+    // Both in microseconds
+    private final LatencyHistogram executionTimeHistogram = new LatencyHistogram() ;
+    private final LatencyHistogram startLagHistogram = new LatencyHistogram() ;
 
     /**
      * <p> To record the whole execution status </p>
      *
      * @param success The flag to represent was the task successfully executed
-     * @param executionTime The execution time of the single task
+     * @param executionTime The execution time of the single task in milliseconds
      * @param retryCounter The retry times of the single task
      */
     public void recordTaskExecution(boolean success, long executionTime, int retryCounter) {
 
-        this.totalExecutionTime += executionTime ;
+        this.totalExecutionTime.add(executionTime) ;
+
+        if (success) successCounter.increment() ;
+        else failCounter.increment() ;
+
+        this.retryCounter.add(retryCounter) ;
+    }
+
+    /**
+     * <p> To record a single execution attempt together with its latencies </p>
+     *
+     * @param success The flag to represent was the attempt successfully executed
+     * @param executionNanos The execution time of the attempt in nanoseconds
+     * @param startLagNanos How late the attempt started compared with its scheduled start, in nanoseconds
+     * @param isRetry The flag to represent was the attempt a retry of a failed one
+     */
+    public void recordTaskExecution(boolean success, long executionNanos, long startLagNanos, boolean isRetry) {
+
+        recordTaskExecution(success, executionNanos / 1_000_000, isRetry ? 1 : 0) ;
+
+        executionTimeHistogram.record(executionNanos / 1_000) ;
+        startLagHistogram.record(startLagNanos / 1_000) ;
+    }
+
+    public long getTotalExecutionTime() {
+
+        return totalExecutionTime.sum() ;
+    }
+
+    public long getSuccessCounter() {
+
+        return successCounter.sum() ;
+    }
+
+    public long getFailCounter() {
+
+        return failCounter.sum() ;
+    }
+
+    public long getRetryCounter() {
+
+        return retryCounter.sum() ;
+    }
+
+    /**
+     * @param percentile The fraction between 0 and 1, e.g. 0.99 for p99
+     * @return The execution time at the percentile in microseconds
+     */
+    public long getExecutionTimePercentile(double percentile) {
+
+        return executionTimeHistogram.getValueAtPercentile(percentile) ;
+    }
+
+    /**
+     * @param percentile The fraction between 0 and 1, e.g. 0.99 for p99
+     * @return The start lag at the percentile in microseconds
+     */
+    public long getStartLagPercentile(double percentile) {
+
+        return startLagHistogram.getValueAtPercentile(percentile) ;
+    }
 
-        if (success) successCounter ++ ;
-        else failCounter ++ ;
+    @Override
+    public String toString() {
 
-        this.retryCounter += retryCounter ;
+        return String.format(
+                "TaskExecutionStatistics(success=%d, fail=%d, retry=%d, execution p50/p99/p999=%d/%d/%d us, start lag p50/p99/p999=%d/%d/%d us)",
+                getSuccessCounter(), getFailCounter(), getRetryCounter(),
+                getExecutionTimePercentile(0.5), getExecutionTimePercentile(0.99), getExecutionTimePercentile(0.999),
+                getStartLagPercentile(0.5), getStartLagPercentile(0.99), getStartLagPercentile(0.999)
+        ) ;
     }
 }
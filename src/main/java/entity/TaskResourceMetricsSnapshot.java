@@ -0,0 +1,31 @@
+package entity;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * <b> Task Resource Manager Metrics Snapshot Entity Class </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/15
+ */
+@Getter
+@Builder
+@ToString
+public class TaskResourceMetricsSnapshot {
+
+    private final int maxConcurrentTaskCounter ;
+    // Equal to maxConcurrentTaskCounter unless an adaptive concurrency limit is configured
+    private final int concurrencyLimit ;
+    private final int inFlightTaskCounter ;
+    private final int availablePermits ;
+    private final int permitWaitingThreadCounter ;
+    private final long permitAcquireCounter ;
+    private final long permitTimeoutCounter ;
+    private final long p50PermitWaitMicros ;
+    private final long p99PermitWaitMicros ;
+    private final Map<String, Integer> jobGroupInFlightTaskCounterMap ;
+}
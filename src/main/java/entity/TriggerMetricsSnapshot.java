@@ -0,0 +1,36 @@
+package entity;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * <b> Trigger Metrics Snapshot Entity Class </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/15
+ */
+@Getter
+@Builder
+@ToString
+public class TriggerMetricsSnapshot {
+
+    private final int queuedJobCounter ;
+    private final long dispatchCounter ;
+    private final long averageDispatchLagMicros ;
+    private final long p99DispatchLagMicros ;
+    private final long maxDispatchLagMicros ;
+    private final long averageStartLagMicros ;
+    private final long p99StartLagMicros ;
+    private final long maxStartLagMicros ;
+    private final int admittedJobCounter ;
+    private final long rejectedJobCounter ;
+    private final long shedJobCounter ;
+    private final long retriedJobCounter ;
+    private final long deniedRetryCounter ;
+    private final int activeWorkerCounter ;
+    private final int workerPoolSize ;
+    private final int maxWorkerPoolSize ;
+    private final int workerQueueSize ;
+    private final double workerPoolSaturation ;
+}
@@ -0,0 +1,15 @@
+package enumeration;
+
+/**
+ * <b> Bounded Trigger Admission Policy Enumeration </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/22
+ */
+public enum AdmissionPolicyEnum {
+
+    // A job arriving at a full trigger is rejected
+    REJECT,
+    // A job arriving at a full trigger displaces a job of a lower priority, it is only rejected if there is none
+    SHED_LOWEST_PRIORITY
+}
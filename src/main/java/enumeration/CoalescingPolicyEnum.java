@@ -0,0 +1,17 @@
+package enumeration;
+
+/**
+ * <b> Keyed Job Coalescing Policy Enumeration </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/27
+ */
+public enum CoalescingPolicyEnum {
+
+    // A key runs once the delay passed without a new submission, with the latest task of the burst
+    DEBOUNCE,
+    // A quiet key runs right away, later submissions collapse into one run per delay with the latest task
+    THROTTLE,
+    // A key runs one delay after its first submission, later submissions only replace the pending task
+    REPLACE_IF_PENDING
+}
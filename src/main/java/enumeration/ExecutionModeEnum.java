@@ -0,0 +1,15 @@
+package enumeration;
+
+/**
+ * <b> Trigger Worker Execution Mode Enumeration </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/11
+ */
+public enum ExecutionModeEnum {
+
+    // Bounded pool of platform threads
+    PLATFORM_THREAD,
+    // One virtual thread per job execution
+    VIRTUAL_THREAD
+}
@@ -0,0 +1,32 @@
+package enumeration;
+
+/**
+ * <b> Job Store Journal Event Enumeration </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/17
+ */
+public enum JournalEventEnum {
+
+    // Carries the whole job, also used for every record of a compacted snapshot
+    SCHEDULE,
+    // Carries the next fire time and retry counter of a job already scheduled
+    RESCHEDULE,
+    // The job will never run again, e.g. it failed after its last retry
+    COMPLETE,
+    CANCEL ;
+
+    private static final JournalEventEnum[] VALUES = values() ;
+
+    public byte getCode() {
+
+        return (byte) ordinal() ;
+    }
+
+    public static JournalEventEnum fromCode(byte code) {
+
+        if (code < 0 || code >= VALUES.length) throw new IllegalArgumentException("Unknown journal event code: " + code) ;
+
+        return VALUES[code] ;
+    }
+}
@@ -0,0 +1,20 @@
+package enumeration;
+
+/**
+ * <b> Recurring Job Misfire Policy Enumeration </b>
+ *
+ * <p> Applies to fixed rate and scheduled jobs whose following slots already passed when they are rescheduled,
+ * e.g. after a long execution, a GC pause or an overloaded scheduler. Persisted by ordinal, only ever append new policies. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/19
+ */
+public enum MisfirePolicyEnum {
+
+    // Coalesce all missed slots into a single execution right away, then continue on the regular slots
+    FIRE_ONCE,
+    // Catch up by executing every missed slot, back to back
+    FIRE_ALL,
+    // Drop the missed slots and continue with the first slot in the future
+    SKIP_TO_NEXT
+}
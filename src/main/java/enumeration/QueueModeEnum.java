@@ -0,0 +1,19 @@
+package enumeration;
+
+/**
+ * <b> Enhanced Trigger Queue Mode Enumeration </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/09
+ */
+public enum QueueModeEnum {
+
+    // Single heap ordered by priority level first and start time second
+    PRIORITY,
+    // Time ordered delay stage releasing due jobs into per priority ready queues
+    DELAY_READY,
+    // Single monotonic start time ordered heap with leader/follower dispatching, priority level only breaks ties
+    DUE_TIME,
+    // Time ordered delay stage releasing due jobs into a heap ordered by deadline, also the order of jobs waiting for permits
+    EARLIEST_DEADLINE
+}
@@ -0,0 +1,19 @@
+package enumeration;
+
+/**
+ * <b> Recurring Job Recurrence Mode Enumeration </b>
+ *
+ * <p> Persisted by ordinal, only ever append new modes </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/19
+ */
+public enum RecurrenceModeEnum {
+
+    // The next execution is due one delay after the job was rescheduled, so the slots drift with dispatch and execution time
+    FIXED_DELAY,
+    // The next execution is due one delay after the previous slot, the slots stay on a fixed grid
+    FIXED_RATE,
+    // A single execution after the delay, retries aside, e.g. a step of a workflow
+    ONE_SHOT
+}
@@ -0,0 +1,25 @@
+package functionalInterface;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * <b> Asynchronous Task Functional Interface </b>
+ *
+ * <p> A task that starts its work and returns at once with the stage of its result. The enhanced trigger frees
+ * the worker as soon as start() returns and holds the permit until the stage completes, the execution times out,
+ * retries and counts on the stage. Other triggers run it as a plain task blocking until the stage completes. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/03/01
+ */
+@FunctionalInterface
+public interface AsyncTask extends Runnable {
+
+    CompletionStage<?> start() ;
+
+    @Override
+    default void run() {
+
+        start().toCompletableFuture().join() ;
+    }
+}
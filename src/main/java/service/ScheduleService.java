@@ -1,9 +1,25 @@
 package service;
 
 import Component.EnhancedTrigger;
+import Component.JobCoalescer;
+import Component.TimingWheelTrigger;
 import Component.Trigger;
+import Component.Workflow;
 import entity.EnhancedJob;
+import entity.EnhancedTriggerConfig;
 import entity.Job;
+import entity.JobHandle;
+import enumeration.CoalescingPolicyEnum;
+import enumeration.MisfirePolicyEnum;
+import enumeration.QueueModeEnum;
+import enumeration.RecurrenceModeEnum;
+import functionalInterface.AsyncTask;
+import util.CronExpression;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * <b> Schedule Service Class </b>
@@ -15,6 +31,7 @@ public class ScheduleService {
 
     private static Trigger basicTrigger ;
     private static EnhancedTrigger enhancedTrigger ;
+    private static TimingWheelTrigger timingWheelTrigger ;
 
     private static final int PRIORITY_LEVEL_INIT = 1 ;
     private static final int MAX_RETRY_COUNTER_INIT = 0 ;
@@ -32,28 +49,257 @@ public class ScheduleService {
 
         return enhancedTrigger ;
     }
+    /**
+     * <p> To create the enhanced trigger with a non default queue mode, must be called before its first use </p>
+     *
+     * @param queueMode The queue mode of the enhanced trigger
+     */
+    public static synchronized void initEnhancedTrigger(QueueModeEnum queueMode) {
+
+        initEnhancedTrigger(EnhancedTriggerConfig.builder().queueMode(queueMode).build()) ;
+    }
+
+    /**
+     * <p> To create the enhanced trigger with a custom configuration, must be called before its first use </p>
+     *
+     * @param config The configuration of the enhanced trigger
+     */
+    public static synchronized void initEnhancedTrigger(EnhancedTriggerConfig config) {
+
+        if (enhancedTrigger != null) throw new IllegalStateException("The Enhanced Trigger has already been initialized") ;
+
+        enhancedTrigger = new EnhancedTrigger(config) ;
+    }
+    public static synchronized TimingWheelTrigger getTimingWheelTrigger() {
+
+        if (timingWheelTrigger == null) timingWheelTrigger = new TimingWheelTrigger() ;
+
+        return timingWheelTrigger ;
+    }
 
-    public static void schedule(Runnable task, long delay) {
+    public static JobHandle schedule(Runnable task, long delay) {
 
         Job job = new Job(task, delay) ;
 
-        getBasicTrigger().setToJobQueue(job) ;
+        return getBasicTrigger().setToJobQueue(job) ;
+    }
+
+    /**
+     * <p> To schedule a batch of jobs with a single lock round-trip and dispatcher wakeup </p>
+     */
+    public static List<JobHandle> scheduleAll(Collection<Job> jobs) {
+
+        return getBasicTrigger().setAllToJobQueue(jobs) ;
+    }
+
+    /**
+     * <p> To schedule a job whose executions stay on a fixed grid of the given period instead of drifting </p>
+     *
+     * @param misfirePolicy What happens to the slots missed while the scheduler was stalled
+     */
+    public static JobHandle scheduleAtFixedRate(Runnable task, long period, MisfirePolicyEnum misfirePolicy) {
+
+        return getBasicTrigger().setToJobQueue(createFixedRateJob(new Job(task, period), misfirePolicy)) ;
+    }
+
+    public static JobHandle timingWheelScheduleAtFixedRate(Runnable task, long period, MisfirePolicyEnum misfirePolicy) {
+
+        return getTimingWheelTrigger().setToJobQueue(createFixedRateJob(new Job(task, period), misfirePolicy)) ;
+    }
+
+    public static JobHandle enhancedScheduleAtFixedRate(String jobKey, Runnable task, long period, int priorityLevel, int maxRetryCounter, MisfirePolicyEnum misfirePolicy) {
+
+        EnhancedJob enhancedJob = createFixedRateJob(new EnhancedJob(task, period, priorityLevel, maxRetryCounter), misfirePolicy) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return getEnhancedTrigger().setToJobQueue(enhancedJob) ;
     }
 
-    public static void enhancedSchedule(Runnable task, long delay) {
+    private static <T extends Job> T createFixedRateJob(T job, MisfirePolicyEnum misfirePolicy) {
+
+        job.setRecurrenceMode(RecurrenceModeEnum.FIXED_RATE) ;
+        job.setMisfirePolicy(misfirePolicy) ;
 
-        enhancedSchedule(task, delay, PRIORITY_LEVEL_INIT) ;
+        return job ;
     }
 
-    public static void enhancedSchedule(Runnable task, long delay, int priorityLevel) {
+    /**
+     * <p> To schedule a job firing on every match of the cron expression, evaluated in the system time zone </p>
+     */
+    public static JobHandle cronSchedule(Runnable task, String cronExpression) {
 
-        enhancedSchedule(task, delay, priorityLevel, MAX_RETRY_COUNTER_INIT) ;
+        return cronSchedule(task, CronExpression.compile(cronExpression)) ;
     }
 
-    public static void enhancedSchedule(Runnable task, long delay, int priorityLevel, int maxRetryCounter) {
+    /**
+     * <p> To schedule a job on a compiled cron expression, share one instance across all jobs of the same expression </p>
+     */
+    public static JobHandle cronSchedule(Runnable task, CronExpression cronExpression) {
+
+        return getBasicTrigger().setToJobQueue(new Job(task, cronExpression)) ;
+    }
+
+    public static JobHandle timingWheelCronSchedule(Runnable task, CronExpression cronExpression) {
+
+        return getTimingWheelTrigger().setToJobQueue(new Job(task, cronExpression)) ;
+    }
+
+    public static JobHandle timingWheelSchedule(Runnable task, long delay) {
+
+        Job job = new Job(task, delay) ;
+
+        return getTimingWheelTrigger().setToJobQueue(job) ;
+    }
+
+    public static JobHandle enhancedSchedule(Runnable task, long delay) {
+
+        return enhancedSchedule(task, delay, PRIORITY_LEVEL_INIT) ;
+    }
+
+    public static JobHandle enhancedSchedule(Runnable task, long delay, int priorityLevel) {
+
+        return enhancedSchedule(task, delay, priorityLevel, MAX_RETRY_COUNTER_INIT) ;
+    }
+
+    public static JobHandle enhancedSchedule(Runnable task, long delay, int priorityLevel, int maxRetryCounter) {
+
+        return enhancedSchedule(null, task, delay, priorityLevel, maxRetryCounter) ;
+    }
+
+    /**
+     * <p> To schedule a job under a stable key, jobs sharing a key are dispatched by the same shard </p>
+     */
+    public static JobHandle enhancedSchedule(String jobKey, Runnable task, long delay, int priorityLevel, int maxRetryCounter) {
 
         EnhancedJob enhancedJob = new EnhancedJob(task, delay, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return getEnhancedTrigger().setToJobQueue(enhancedJob) ;
+    }
+
+    /**
+     * <p> To schedule a job on a bounded enhanced trigger without failing on the spot, the future completes
+     * once the trigger has room for it </p>
+     */
+    public static CompletableFuture<JobHandle> enhancedSubmit(String jobKey, Runnable task, long delay, int priorityLevel, int maxRetryCounter) {
+
+        EnhancedJob enhancedJob = new EnhancedJob(task, delay, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return getEnhancedTrigger().submitToJobQueue(enhancedJob) ;
+    }
+
+    /**
+     * <p> To schedule a job whose task starts its work and returns the stage of the result, e.g. a call on an
+     * asynchronous client. The worker is free once the task started, completion, timeout and retries follow the stage. </p>
+     */
+    public static JobHandle enhancedAsyncSchedule(String jobKey, AsyncTask task, long delay, int priorityLevel, int maxRetryCounter) {
+
+        EnhancedJob enhancedJob = new EnhancedJob(task, delay, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return getEnhancedTrigger().setToJobQueue(enhancedJob) ;
+    }
+
+    /**
+     * <p> To schedule a job in a job group, which shares the permits of its group only </p>
+     */
+    public static JobHandle enhancedGroupSchedule(String jobGroup, String jobKey, Runnable task, long delay, int priorityLevel, int maxRetryCounter) {
+
+        EnhancedJob enhancedJob = new EnhancedJob(task, delay, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setJobGroup(jobGroup) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return getEnhancedTrigger().setToJobQueue(enhancedJob) ;
+    }
+
+    /**
+     * <p> To schedule a job whose every execution must complete within the deadline after its due time, it is
+     * interrupted once overdue and dispatched ahead of later deadlines by an EARLIEST_DEADLINE trigger </p>
+     */
+    public static JobHandle enhancedDeadlineSchedule(String jobKey, Runnable task, long delay, long deadline, int priorityLevel, int maxRetryCounter) {
+
+        EnhancedJob enhancedJob = new EnhancedJob(task, delay, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setDeadline(deadline) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return getEnhancedTrigger().setToJobQueue(enhancedJob) ;
+    }
+
+    public static JobHandle enhancedCronSchedule(String jobKey, Runnable task, CronExpression cronExpression, int priorityLevel, int maxRetryCounter) {
+
+        EnhancedJob enhancedJob = new EnhancedJob(task, cronExpression, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return getEnhancedTrigger().setToJobQueue(enhancedJob) ;
+    }
+
+    /**
+     * <p> To cap the dispatch rate of the keyed jobs on the enhanced trigger, calling it again adjusts the limit </p>
+     */
+    public static void enhancedRateLimit(String jobKey, double permitsPerSecond, int burst) {
+
+        getEnhancedTrigger().setRateLimit(jobKey, permitsPerSecond, burst) ;
+    }
+
+    /**
+     * <p> To create a coalescer of keyed submissions on the enhanced trigger, an event storm on a key then
+     * costs a single queued job and execution per delay </p>
+     */
+    public static JobCoalescer enhancedCoalescer(CoalescingPolicyEnum coalescingPolicy, long delay) {
+
+        return new JobCoalescer(getEnhancedTrigger(), coalescingPolicy, delay, PRIORITY_LEVEL_INIT, MAX_RETRY_COUNTER_INIT) ;
+    }
+
+    /**
+     * <p> To build a graph of dependent one-shot jobs on the enhanced trigger, started once all jobs are added </p>
+     */
+    public static Workflow enhancedWorkflow() {
+
+        return new Workflow(getEnhancedTrigger()) ;
+    }
+
+    /**
+     * <p> To register the task factory of durable jobs, the stored jobs of the task left unscheduled by the recovery
+     * are scheduled right away. The first call creates the enhanced trigger, a trigger with a job store must be set
+     * up by {@link #initEnhancedTrigger(EnhancedTriggerConfig)} before. </p>
+     */
+    public static void registerDurableTask(String taskName, Supplier<? extends Runnable> taskFactory) {
+
+        getEnhancedTrigger().getTaskRegistry().register(taskName, taskFactory) ;
+    }
+
+    /**
+     * <p> To schedule a job whose task is created from the registered task name, persisted when the enhanced
+     * trigger is configured with a job store </p>
+     */
+    public static JobHandle enhancedDurableSchedule(String taskName, String jobKey, long delay, int priorityLevel, int maxRetryCounter) {
+
+        EnhancedTrigger trigger = getEnhancedTrigger() ;
+
+        EnhancedJob enhancedJob = new EnhancedJob(trigger.getTaskRegistry().createTask(taskName), delay, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setTaskName(taskName) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return trigger.setToJobQueue(enhancedJob) ;
+    }
+
+    public static JobHandle enhancedDurableCronSchedule(String taskName, String jobKey, CronExpression cronExpression, int priorityLevel, int maxRetryCounter) {
+
+        EnhancedTrigger trigger = getEnhancedTrigger() ;
+
+        EnhancedJob enhancedJob = new EnhancedJob(trigger.getTaskRegistry().createTask(taskName), cronExpression, priorityLevel, maxRetryCounter) ;
+        enhancedJob.setTaskName(taskName) ;
+        enhancedJob.setJobKey(jobKey) ;
+
+        return trigger.setToJobQueue(enhancedJob) ;
+    }
+
+    /**
+     * <p> To schedule a batch of enhanced jobs with a single lock round-trip and dispatcher wakeup per shard </p>
+     */
+    public static List<JobHandle> enhancedScheduleAll(Collection<EnhancedJob> enhancedJobs) {
 
-        getEnhancedTrigger().setToJobQueue(enhancedJob) ;
+        return getEnhancedTrigger().setAllToJobQueue(enhancedJobs) ;
     }
 }
@@ -0,0 +1,69 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <b> Consistent Hash Ring Utility Class </b>
+ *
+ * <p> Places every node on the ring under a number of virtual points, a key belongs to the first point
+ * clockwise of its hash. A node joining or leaving only moves the keys next to its own points, about one
+ * node worth of keys. The hash is computed from the UTF-8 bytes, so every JVM builds the same ring. </p>
+ *
+ * <p> Immutable, build a new ring whenever the nodes change. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/23
+ */
+public class ConsistentHashRing {
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L ;
+    private static final long FNV_PRIME = 0x100000001B3L ;
+
+    private final TreeMap<Long, String> ring = new TreeMap<>() ;
+
+    /**
+     * @param nodeIds The ids of the nodes on the ring
+     * @param virtualNodeCounter The number of points of every node, more points spread the keys more evenly
+     */
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodeCounter) {
+
+        for (String nodeId : nodeIds) {
+
+            for (int i = 0 ; i < virtualNodeCounter ; i ++) ring.put(hash(nodeId + "#" + i), nodeId) ;
+        }
+    }
+
+    /**
+     * @return The id of the node owning the key, null if the ring is empty
+     */
+    public String getNodeId(String key) {
+
+        if (ring.isEmpty()) return null ;
+
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key)) ;
+
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue() ;
+    }
+
+    /**
+     * <p> 64-bit FNV-1a followed by a finalizer, so that similar keys still land far apart </p>
+     */
+    public static long hash(String key) {
+
+        long hash = FNV_OFFSET_BASIS ;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+
+            hash ^= b & 0xFF ;
+            hash *= FNV_PRIME ;
+        }
+
+        hash ^= hash >>> 33 ;
+        hash *= 0xFF51AFD7ED558CCDL ;
+        hash ^= hash >>> 33 ;
+
+        return hash ;
+    }
+}
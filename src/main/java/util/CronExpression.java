@@ -0,0 +1,422 @@
+package util;
+
+import behavior.JobSchedule;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <b> Precompiled Cron Expression Class </b>
+ *
+ * <p> Six fields {@code second minute hour day-of-month month day-of-week}, a five field expression fires at
+ * second 0. Every field accepts {@code *}, {@code ?}, lists, ranges, steps and English month and day names.
+ * The fields are compiled once into bitsets, so the next fire time is found with a few bit scans on primitive
+ * calendar fields and nothing is allocated, except when the search crosses an offset transition of the time zone. </p>
+ *
+ * <p> As in Vixie cron, a day matches either day field once both of them are restricted. Local times are
+ * resolved like {@link java.time.ZonedDateTime#of}, so a time repeated by a backward transition fires once and
+ * a time skipped by a gap fires shifted forward by the gap. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/18
+ */
+public final class CronExpression implements JobSchedule {
+
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"} ;
+    private static final String[] DAY_OF_WEEK_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"} ;
+    private static final int[] MONTH_LENGTHS = {0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31} ;
+    private static final int SECONDS_PER_DAY = 86400 ;
+    // A 29th of February may be eight years away around a century that is not a leap year
+    private static final int SEARCH_YEAR_LIMIT = 9 ;
+
+    private final String expression ;
+    private final ZoneId zoneId ;
+    private final ZoneRules zoneRules ;
+    private final long secondBits ;
+    private final long minuteBits ;
+    private final long hourBits ;
+    private final long dayOfMonthBits ;
+    private final long monthBits ;
+    // Sunday is bit 0, 7 is accepted as Sunday too
+    private final long dayOfWeekBits ;
+    private final boolean isDayOfMonthRestricted ;
+    private final boolean isDayOfWeekRestricted ;
+    private volatile OffsetWindow offsetWindow ;
+
+    private CronExpression(String expression, ZoneId zoneId) {
+
+        String[] fields = expression.trim().split("\\s+") ;
+
+        if (fields.length != 5 && fields.length != 6) throw invalid(expression, "expected 5 or 6 fields") ;
+
+        int offset = fields.length == 6 ? 1 : 0 ;
+
+        this.expression = expression.trim() ;
+        this.zoneId = zoneId ;
+        this.zoneRules = zoneId.getRules() ;
+        this.secondBits = offset == 1 ? parseField(expression, fields[0], 0, 59, null) : 1L ;
+        this.minuteBits = parseField(expression, fields[offset], 0, 59, null) ;
+        this.hourBits = parseField(expression, fields[offset + 1], 0, 23, null) ;
+        this.dayOfMonthBits = parseField(expression, fields[offset + 2], 1, 31, null) ;
+        this.monthBits = parseField(expression, fields[offset + 3], 1, 12, MONTH_NAMES) ;
+        long dayOfWeekField = parseField(expression, fields[offset + 4], 0, 7, DAY_OF_WEEK_NAMES) ;
+        this.dayOfWeekBits = (dayOfWeekField | (dayOfWeekField >>> 7)) & 0x7F ;
+        this.isDayOfMonthRestricted = isRestricted(fields[offset + 2]) ;
+        this.isDayOfWeekRestricted = isRestricted(fields[offset + 4]) ;
+        this.offsetWindow = createOffsetWindow(0) ;
+
+        if (getNextFireTime(System.currentTimeMillis()) == NO_NEXT_FIRE_TIME) throw invalid(expression, "it never fires") ;
+    }
+
+    public static CronExpression compile(String expression) {
+
+        return compile(expression, ZoneId.systemDefault()) ;
+    }
+
+    /**
+     * @param expression The cron expression
+     * @param zoneId The time zone the fields are evaluated in
+     * @return The compiled expression, immutable and shareable by any number of jobs
+     */
+    public static CronExpression compile(String expression, ZoneId zoneId) {
+
+        return new CronExpression(expression, zoneId) ;
+    }
+
+    public String getExpression() {
+
+        return expression ;
+    }
+
+    public ZoneId getZoneId() {
+
+        return zoneId ;
+    }
+
+    @Override
+    public long getNextFireTime(long afterTime) {
+
+        // Whole seconds strictly after the given time
+        long epochSecond = Math.floorDiv(afterTime, 1000) + 1 ;
+        int offsetSeconds = getOffsetWindow(epochSecond).offsetSeconds ;
+        long localSecond = epochSecond + offsetSeconds ;
+
+        while (true) {
+
+            localSecond = findNextLocalSecond(localSecond) ;
+
+            if (localSecond == NO_NEXT_FIRE_TIME) return NO_NEXT_FIRE_TIME ;
+
+            long fireEpochSecond = toEpochSecond(localSecond, offsetSeconds) ;
+
+            // The first occurrence of a local time repeated by a backward transition may lie before the search start
+            if (fireEpochSecond >= epochSecond) return fireEpochSecond * 1000 ;
+
+            localSecond ++ ;
+        }
+    }
+
+    /**
+     * <p> To resolve a local time like {@link java.time.ZonedDateTime#of}, the earlier offset wins in an overlap
+     * and a time inside a gap is shifted forward by the length of the gap </p>
+     *
+     * @param localSecond The local date-time as seconds since the local epoch
+     * @param offsetHint An offset valid close to the local time
+     * @return The epoch second
+     */
+    private long toEpochSecond(long localSecond, int offsetHint) {
+
+        OffsetWindow window = getOffsetWindow(localSecond - offsetHint) ;
+        long epochSecond = localSecond - window.offsetSeconds ;
+
+        // No offset transition within a day, so the local time has exactly this one offset
+        if (epochSecond - SECONDS_PER_DAY > window.validFrom && epochSecond + SECONDS_PER_DAY < window.validUntil) return epochSecond ;
+
+        // Close to a transition, rare enough to let the zone rules allocate
+        LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC) ;
+        List<ZoneOffset> validOffsets = zoneRules.getValidOffsets(localDateTime) ;
+
+        if (validOffsets.isEmpty()) return localSecond - zoneRules.getTransition(localDateTime).getOffsetBefore().getTotalSeconds() ;
+
+        return localSecond - validOffsets.get(0).getTotalSeconds() ;
+    }
+
+    /**
+     * <p> To find the first matching local second at or after the given one, on plain calendar fields </p>
+     *
+     * @param localSecond The local date-time as seconds since the local epoch
+     * @return The first matching local second, or {@link #NO_NEXT_FIRE_TIME} within the search limit
+     */
+    private long findNextLocalSecond(long localSecond) {
+
+        long epochDay = Math.floorDiv(localSecond, SECONDS_PER_DAY) ;
+        int secondOfDay = Math.floorMod(localSecond, SECONDS_PER_DAY) ;
+
+        // Civil date from days, see Howard Hinnant's chrono-compatible date algorithms
+        long shiftedDay = epochDay + 719468 ;
+        long era = Math.floorDiv(shiftedDay, 146097) ;
+        int dayOfEra = (int) (shiftedDay - era * 146097) ;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365 ;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100) ;
+        int shiftedMonth = (5 * dayOfYear + 2) / 153 ;
+
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1 ;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9 ;
+        int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0) ;
+        int hour = secondOfDay / 3600 ;
+        int minute = secondOfDay / 60 % 60 ;
+        int second = secondOfDay % 60 ;
+
+        int yearLimit = year + SEARCH_YEAR_LIMIT ;
+
+        while (year <= yearLimit) {
+
+            if (day > lengthOfMonth(year, month)) {
+
+                day = 1 ;
+                month ++ ;
+            }
+
+            if (month > 12) {
+
+                month = 1 ;
+                year ++ ;
+            }
+
+            if ((monthBits & (1L << month)) == 0) {
+
+                int nextMonth = nextBit(monthBits, month) ;
+
+                if (nextMonth < 0) {
+
+                    nextMonth = Long.numberOfTrailingZeros(monthBits) ;
+                    year ++ ;
+                }
+
+                month = nextMonth ;
+                day = 1 ;
+                hour = minute = second = 0 ;
+
+                continue ;
+            }
+
+            if (!matchesDay(year, month, day)) {
+
+                day ++ ;
+                hour = minute = second = 0 ;
+
+                continue ;
+            }
+
+            int nextHour = nextBit(hourBits, hour) ;
+
+            if (nextHour < 0) {
+
+                day ++ ;
+                hour = minute = second = 0 ;
+
+                continue ;
+            }
+
+            if (nextHour != hour) {
+
+                hour = nextHour ;
+                minute = second = 0 ;
+            }
+
+            int nextMinute = nextBit(minuteBits, minute) ;
+
+            if (nextMinute < 0) {
+
+                hour ++ ;
+                minute = second = 0 ;
+
+                continue ;
+            }
+
+            if (nextMinute != minute) {
+
+                minute = nextMinute ;
+                second = 0 ;
+            }
+
+            int nextSecond = nextBit(secondBits, second) ;
+
+            if (nextSecond < 0) {
+
+                minute ++ ;
+                second = 0 ;
+
+                continue ;
+            }
+
+            return daysFromCivil(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + nextSecond ;
+        }
+
+        return NO_NEXT_FIRE_TIME ;
+    }
+
+    private boolean matchesDay(int year, int month, int day) {
+
+        boolean isDayOfMonthMatched = (dayOfMonthBits & (1L << day)) != 0 ;
+        // The epoch day 0 was a Thursday
+        boolean isDayOfWeekMatched = (dayOfWeekBits & (1L << Math.floorMod(daysFromCivil(year, month, day) + 4, 7))) != 0 ;
+
+        if (isDayOfMonthRestricted && isDayOfWeekRestricted) return isDayOfMonthMatched || isDayOfWeekMatched ;
+
+        return isDayOfMonthMatched && isDayOfWeekMatched ;
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+
+        int shiftedYear = month <= 2 ? year - 1 : year ;
+        int era = Math.floorDiv(shiftedYear, 400) ;
+        int yearOfEra = shiftedYear - era * 400 ;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1 ;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear ;
+
+        return era * 146097L + dayOfEra - 719468 ;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+
+        return month == 2 && Year.isLeap(year) ? 29 : MONTH_LENGTHS[month] ;
+    }
+
+    private static int nextBit(long bits, int from) {
+
+        if (from >= Long.SIZE) return -1 ;
+
+        long remainingBits = bits & (-1L << from) ;
+
+        return remainingBits == 0 ? -1 : Long.numberOfTrailingZeros(remainingBits) ;
+    }
+
+    private OffsetWindow getOffsetWindow(long epochSecond) {
+
+        OffsetWindow window = offsetWindow ;
+
+        if (epochSecond < window.validFrom || epochSecond >= window.validUntil) {
+
+            window = createOffsetWindow(epochSecond) ;
+            offsetWindow = window ;
+        }
+
+        return window ;
+    }
+
+    private OffsetWindow createOffsetWindow(long epochSecond) {
+
+        if (zoneRules.isFixedOffset()) return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, zoneRules.getOffset(Instant.EPOCH).getTotalSeconds()) ;
+
+        Instant instant = Instant.ofEpochSecond(epochSecond) ;
+        // Strictly before its argument, an instant right at a transition must still see that transition
+        ZoneOffsetTransition previousTransition = zoneRules.previousTransition(instant.plusSeconds(1)) ;
+        ZoneOffsetTransition nextTransition = zoneRules.nextTransition(instant) ;
+
+        return new OffsetWindow(
+                previousTransition == null ? Long.MIN_VALUE : previousTransition.toEpochSecond(),
+                nextTransition == null ? Long.MAX_VALUE : nextTransition.toEpochSecond(),
+                zoneRules.getOffset(instant).getTotalSeconds()
+        ) ;
+    }
+
+    private static long parseField(String expression, String field, int min, int max, String[] names) {
+
+        long bits = 0 ;
+
+        for (String part : field.split(",")) {
+
+            int step = 1 ;
+            int slashIndex = part.indexOf('/') ;
+            String range = slashIndex < 0 ? part : part.substring(0, slashIndex) ;
+
+            if (slashIndex >= 0) step = parseValue(expression, part.substring(slashIndex + 1), null, 0) ;
+
+            int low ;
+            int high ;
+
+            if (range.equals("*") || range.equals("?")) {
+
+                low = min ;
+                high = max ;
+            } else if (range.indexOf('-') > 0) {
+
+                low = parseValue(expression, range.substring(0, range.indexOf('-')), names, min) ;
+                high = parseValue(expression, range.substring(range.indexOf('-') + 1), names, min) ;
+            } else {
+
+                low = parseValue(expression, range, names, min) ;
+                // "5/15" starts at 5 and steps up to the maximum
+                high = slashIndex < 0 ? low : max ;
+            }
+
+            if (low < min || high > max || low > high || step <= 0) throw invalid(expression, "'" + part + "' is out of range " + min + "-" + max) ;
+
+            for (int value = low ; value <= high ; value += step) bits |= 1L << value ;
+        }
+
+        return bits ;
+    }
+
+    private static int parseValue(String expression, String token, String[] names, int nameOffset) {
+
+        if (names != null) {
+
+            String upperCaseToken = token.toUpperCase(Locale.ROOT) ;
+
+            for (int i = 0 ; i < names.length ; i ++) {
+
+                if (names[i].equals(upperCaseToken)) return i + nameOffset ;
+            }
+        }
+
+        try {
+
+            return Integer.parseInt(token) ;
+        } catch (NumberFormatException exception) {
+
+            throw invalid(expression, "'" + token + "' is not a number") ;
+        }
+    }
+
+    private static boolean isRestricted(String field) {
+
+        return !field.startsWith("*") && !field.equals("?") ;
+    }
+
+    private static IllegalArgumentException invalid(String expression, String reason) {
+
+        return new IllegalArgumentException("Invalid cron expression '" + expression + "': " + reason) ;
+    }
+
+    @Override
+    public String toString() {
+
+        return expression + " [" + zoneId + "]" ;
+    }
+
+    /**
+     * <b> Time span with a constant zone offset, replaced only when a search leaves it </b>
+     */
+    private static final class OffsetWindow {
+
+        private final long validFrom ;
+        private final long validUntil ;
+        private final int offsetSeconds ;
+
+        private OffsetWindow(long validFrom, long validUntil, int offsetSeconds) {
+
+            this.validFrom = validFrom ;
+            this.validUntil = validUntil ;
+            this.offsetSeconds = offsetSeconds ;
+        }
+    }
+}
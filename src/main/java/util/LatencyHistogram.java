@@ -0,0 +1,83 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <b> Lock-Free Log-Linear Latency Histogram Utility Class </b>
+ *
+ * <p> Values below {@code 2^SUB_BUCKET_BITS} get a bucket each, larger values share {@code 2^SUB_BUCKET_BITS}
+ * linear sub buckets per power of two, so every recorded value is kept within about 3% of its real size.
+ * Recording is a single atomic increment, no lock is ever taken. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/02/14
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5 ;
+    private static final int SUB_BUCKET_COUNTER = 1 << SUB_BUCKET_BITS ;
+    private static final int BUCKET_COUNTER = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNTER ;
+
+    private final AtomicLongArray bucketCounters = new AtomicLongArray(BUCKET_COUNTER) ;
+    private final LongAdder totalCounter = new LongAdder() ;
+
+    public void record(long value) {
+
+        bucketCounters.incrementAndGet(indexOf(Math.max(0, value))) ;
+        totalCounter.increment() ;
+    }
+
+    public long getTotalCounter() {
+
+        return totalCounter.sum() ;
+    }
+
+    /**
+     * <p> To estimate the value below which the given fraction of the recorded values fall </p>
+     *
+     * @param percentile The fraction between 0 and 1, e.g. 0.999 for p999
+     * @return The upper bound of the bucket holding the percentile, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        long total = 0 ;
+        for (int i = 0 ; i < BUCKET_COUNTER ; i ++) total += bucketCounters.get(i) ;
+
+        if (total == 0) return 0 ;
+
+        long targetCounter = Math.max(1, (long) Math.ceil(total * Math.min(1.0, Math.max(0.0, percentile)))) ;
+
+        long accumulatedCounter = 0 ;
+        for (int i = 0 ; i < BUCKET_COUNTER ; i ++) {
+
+            accumulatedCounter += bucketCounters.get(i) ;
+
+            if (accumulatedCounter >= targetCounter) return upperBoundOf(i) ;
+        }
+
+        return upperBoundOf(BUCKET_COUNTER - 1) ;
+    }
+
+    private static int indexOf(long value) {
+
+        if (value < SUB_BUCKET_COUNTER) return (int) value ;
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) ;
+        int shift = exponent - SUB_BUCKET_BITS ;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNTER - 1) ;
+
+        return (shift + 1) * SUB_BUCKET_COUNTER + subBucket ;
+    }
+
+    private static long upperBoundOf(int index) {
+
+        if (index < SUB_BUCKET_COUNTER) return index ;
+
+        int shift = index / SUB_BUCKET_COUNTER - 1 ;
+        long subBucket = index % SUB_BUCKET_COUNTER ;
+        long lowerBound = (SUB_BUCKET_COUNTER + subBucket) << shift ;
+
+        return lowerBound + (1L << shift) - 1 ;
+    }
+}
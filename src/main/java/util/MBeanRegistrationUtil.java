@@ -0,0 +1,66 @@
+package util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <b> JMX MBean Registration Utility Class </b>
+ *
+ * @author Aki Chou
+ * @date 2025/02/15
+ */
+@Slf4j
+public class MBeanRegistrationUtil {
+
+    private static final String DOMAIN = "com.akichou.jobSchedule" ;
+    private static final AtomicInteger INSTANCE_ID = new AtomicInteger(1) ;
+
+    public static int nextInstanceId() {
+
+        return INSTANCE_ID.getAndIncrement() ;
+    }
+
+    /**
+     * <p> To register the MBean on the platform MBean server, a failure is only logged </p>
+     *
+     * @param mBean The MBean to be registered
+     * @param type The type key of the object name
+     * @param instanceId The id distinguishing several instances of the same type
+     * @return The registered object name, null if the registration failed
+     */
+    public static ObjectName register(Object mBean, String type, int instanceId) {
+
+        try {
+
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",id=" + instanceId) ;
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mBean, objectName) ;
+
+            return objectName ;
+        } catch (JMException exception) {
+
+            log.error(exception.getMessage()) ;
+
+            return null ;
+        }
+    }
+
+    public static void unregister(ObjectName objectName) {
+
+        if (objectName == null) return ;
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer() ;
+
+        try {
+
+            if (mBeanServer.isRegistered(objectName)) mBeanServer.unregisterMBean(objectName) ;
+        } catch (JMException exception) {
+
+            log.error(exception.getMessage()) ;
+        }
+    }
+}
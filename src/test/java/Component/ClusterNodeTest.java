@@ -0,0 +1,198 @@
+package Component;
+
+import behavior.CoordinationStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <b> Cluster Node Test Class </b>
+ *
+ * <p> Three nodes in one process share an in-memory coordination store, the third one reaches it through a
+ * store that can be cut off to let the node die without handing its leases back. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/03/02
+ */
+class ClusterNodeTest {
+
+    private static final int PARTITION_COUNTER = 64 ;
+    private static final long LEASE_TIME = 600 ;
+    private static final long HEARTBEAT_INTERVAL = LEASE_TIME / 3 ;
+
+    private final InMemoryCoordinationStore coordinationStore = new InMemoryCoordinationStore() ;
+    private final FailingCoordinationStore failingCoordinationStore = new FailingCoordinationStore(coordinationStore) ;
+    private final List<ClusterNode> clusterNodes = new ArrayList<>() ;
+    // One key per partition, to ask the nodes about every partition
+    private final String[] partitionKeys = new String[PARTITION_COUNTER] ;
+
+    @AfterEach
+    void tearDown() {
+
+        clusterNodes.forEach(ClusterNode::shutdown) ;
+    }
+
+    @Test
+    void spreadsEveryPartitionOverExactlyOneNode() throws InterruptedException {
+
+        startClusterNodes() ;
+
+        for (ClusterNode clusterNode : clusterNodes) {
+
+            // Consistent hashing gives each of three nodes about a third, far from none
+            assertTrue(clusterNode.getOwnedPartitionCounter() >= PARTITION_COUNTER / 8, "Partitions not spread: " + clusterNode) ;
+        }
+
+        assertEquals(PARTITION_COUNTER, coordinationStore.getLeases("partition/").size()) ;
+    }
+
+    @Test
+    void movesThePartitionsOfAStoppedNode() throws InterruptedException {
+
+        startClusterNodes() ;
+
+        ClusterNode stoppedNode = clusterNodes.get(1) ;
+        long stopNanoTime = System.nanoTime() ;
+        stoppedNode.shutdown() ;
+
+        // The leases are handed back, the other nodes take them on their next heartbeat
+        awaitExactlyOneOwner(clusterNodes.get(0), clusterNodes.get(2)) ;
+
+        assertTrue(System.nanoTime() - stopNanoTime < LEASE_TIME * 1_000_000, "Failover slower than the lease time") ;
+        assertEquals(0, stoppedNode.getOwnedPartitionCounter()) ;
+    }
+
+    @Test
+    void movesThePartitionsOfADeadNodeOnceItsLeasesExpired() throws InterruptedException {
+
+        startClusterNodes() ;
+
+        ClusterNode deadNode = clusterNodes.get(2) ;
+        long deathNanoTime = System.nanoTime() ;
+        failingCoordinationStore.isFailing = true ;
+
+        // The leases expire a lease time after the last renewal, the next heartbeat of a live node takes them
+        awaitExactlyOneOwner(clusterNodes.get(0), clusterNodes.get(1)) ;
+
+        assertTrue(System.nanoTime() - deathNanoTime < (LEASE_TIME + HEARTBEAT_INTERVAL * 2) * 1_000_000, "Failover slower than the lease time") ;
+
+        // The dead node stopped trusting its partitions before they could expire
+        for (String partitionKey : partitionKeys) assertFalse(deadNode.isOwner(partitionKey)) ;
+    }
+
+    private void startClusterNodes() throws InterruptedException {
+
+        clusterNodes.add(new ClusterNode("node-0", coordinationStore, PARTITION_COUNTER, LEASE_TIME)) ;
+        clusterNodes.add(new ClusterNode("node-1", coordinationStore, PARTITION_COUNTER, LEASE_TIME)) ;
+        clusterNodes.add(new ClusterNode("node-2", failingCoordinationStore, PARTITION_COUNTER, LEASE_TIME)) ;
+
+        for (int i = 0, foundCounter = 0 ; foundCounter < PARTITION_COUNTER ; i ++) {
+
+            int partition = clusterNodes.getFirst().getPartition("key-" + i) ;
+
+            if (partitionKeys[partition] == null) {
+
+                partitionKeys[partition] = "key-" + i ;
+                foundCounter ++ ;
+            }
+        }
+
+        // The first node takes every partition, the later ones get theirs handed over within a few heartbeats
+        await(() -> clusterNodes.stream().allMatch(clusterNode -> clusterNode.getLiveNodeIds().size() == 3 && clusterNode.getOwnedPartitionCounter() > 0)
+                && hasExactlyOneOwner(clusterNodes.toArray(new ClusterNode[0]))) ;
+    }
+
+    private void awaitExactlyOneOwner(ClusterNode... liveClusterNodes) throws InterruptedException {
+
+        await(() -> hasExactlyOneOwner(liveClusterNodes)) ;
+
+        // A stopped or dead node must not still take itself for the owner
+        for (String partitionKey : partitionKeys) {
+
+            int ownerCounter = 0 ;
+            for (ClusterNode clusterNode : clusterNodes) if (clusterNode.isOwner(partitionKey)) ownerCounter ++ ;
+
+            assertEquals(1, ownerCounter, "Owners of " + partitionKey) ;
+        }
+    }
+
+    private boolean hasExactlyOneOwner(ClusterNode... clusterNodes) {
+
+        for (String partitionKey : partitionKeys) {
+
+            int ownerCounter = 0 ;
+            for (ClusterNode clusterNode : clusterNodes) if (clusterNode.isOwner(partitionKey)) ownerCounter ++ ;
+
+            if (ownerCounter != 1) return false ;
+        }
+
+        return true ;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+
+        long deadlineNanoTime = System.nanoTime() + LEASE_TIME * 5 * 1_000_000 ;
+        while (!condition.getAsBoolean()) {
+
+            assertTrue(System.nanoTime() - deadlineNanoTime < 0, "Cluster did not settle") ;
+
+            Thread.sleep(5) ;
+        }
+    }
+
+    private static class FailingCoordinationStore implements CoordinationStore {
+
+        private final CoordinationStore coordinationStore ;
+        private volatile boolean isFailing ;
+
+        FailingCoordinationStore(CoordinationStore coordinationStore) {
+
+            this.coordinationStore = coordinationStore ;
+        }
+
+        @Override
+        public boolean tryAcquireLease(String leaseKey, String ownerId, long leaseTime) {
+
+            checkFailing() ;
+
+            return coordinationStore.tryAcquireLease(leaseKey, ownerId, leaseTime) ;
+        }
+
+        @Override
+        public void releaseLease(String leaseKey, String ownerId) {
+
+            checkFailing() ;
+
+            coordinationStore.releaseLease(leaseKey, ownerId) ;
+        }
+
+        @Override
+        public Map<String, String> getLeases(String keyPrefix) {
+
+            checkFailing() ;
+
+            return coordinationStore.getLeases(keyPrefix) ;
+        }
+
+        @Override
+        public Map<String, Long> getLeaseExpireTimes(String keyPrefix) {
+
+            checkFailing() ;
+
+            return coordinationStore.getLeaseExpireTimes(keyPrefix) ;
+        }
+
+        private void checkFailing() {
+
+            if (isFailing) throw new IllegalStateException("The coordination store is unreachable") ;
+        }
+    }
+}
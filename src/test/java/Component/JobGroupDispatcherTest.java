@@ -0,0 +1,200 @@
+package Component;
+
+import entity.EnhancedJob;
+import entity.Job;
+import entity.JobGroup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <b> Job Group Dispatcher Test Class </b>
+ *
+ * <p> A single permit handed back after every launch keeps the group saturated, so the order of the
+ * launched jobs is the order the dispatcher picks its lanes in. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/03/02
+ */
+class JobGroupDispatcherTest {
+
+    private static final int DISPATCH_COUNTER = 100 ;
+
+    private final List<EnhancedJob> launchedJobs = new ArrayList<>() ;
+    private ScheduledExecutorService wakeUpTimer ;
+    private TaskResourceManager taskResourceManager ;
+    private JobGroupDispatcher jobGroupDispatcher ;
+
+    @BeforeEach
+    void setUp() {
+
+        wakeUpTimer = Executors.newSingleThreadScheduledExecutor() ;
+        createJobGroupDispatcher(1, List.of()) ;
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        wakeUpTimer.shutdownNow() ;
+    }
+
+    @Test
+    void retriesMakeProgressUnderSaturation() {
+
+        for (int i = 0 ; i < DISPATCH_COUNTER ; i ++) jobGroupDispatcher.submit(createJob(0)) ;
+        for (int i = 0 ; i < DISPATCH_COUNTER ; i ++) jobGroupDispatcher.submit(createJob(1)) ;
+
+        // A fresh first attempt arrives with every completion, the group never runs out of them
+        for (int i = 1 ; i < DISPATCH_COUNTER ; i ++) {
+
+            jobGroupDispatcher.submit(createJob(0)) ;
+            completeLastLaunchedJob() ;
+        }
+
+        assertEquals(DISPATCH_COUNTER, launchedJobs.size()) ;
+
+        long retryCounter = launchedJobs.stream().filter(enhancedJob -> enhancedJob.getRetryCounter() > 0).count() ;
+
+        // One retry for every four first attempts
+        assertTrue(retryCounter >= DISPATCH_COUNTER / 5 - 1, "Retries starved: " + retryCounter) ;
+        assertTrue(retryCounter <= DISPATCH_COUNTER / 5 + 1, "Retries crowded out the first attempts: " + retryCounter) ;
+    }
+
+    @Test
+    void retriesTakeEveryPermitLeftOver() {
+
+        for (int i = 0 ; i < DISPATCH_COUNTER ; i ++) jobGroupDispatcher.submit(createJob(1)) ;
+
+        for (int i = 1 ; i < DISPATCH_COUNTER ; i ++) completeLastLaunchedJob() ;
+
+        assertEquals(DISPATCH_COUNTER, launchedJobs.size()) ;
+        assertEquals(0, jobGroupDispatcher.size()) ;
+    }
+
+    @Test
+    void groupsShareTheirPermitsByWeightUnderSaturation() {
+
+        createJobGroupDispatcher(1, List.of(createJobGroup("heavy", 3, Integer.MAX_VALUE), createJobGroup("light", 1, Integer.MAX_VALUE))) ;
+
+        for (int i = 0 ; i < DISPATCH_COUNTER ; i ++) {
+
+            jobGroupDispatcher.submit(createJob("heavy")) ;
+            jobGroupDispatcher.submit(createJob("light")) ;
+        }
+
+        for (int i = 1 ; i < DISPATCH_COUNTER ; i ++) completeLastLaunchedJob() ;
+
+        assertEquals(DISPATCH_COUNTER, launchedJobs.size()) ;
+
+        long lightCounter = countLaunchedJobs("light") ;
+
+        // Three permits of the heavy group for every permit of the light one
+        assertTrue(Math.abs(lightCounter - DISPATCH_COUNTER / 4) <= 1, "Light group dispatched: " + lightCounter) ;
+        assertEquals(DISPATCH_COUNTER - lightCounter, countLaunchedJobs("heavy")) ;
+    }
+
+    @Test
+    void groupNeverExceedsItsOwnQuota() {
+
+        createJobGroupDispatcher(4, List.of(createJobGroup("capped", 3, 1), createJobGroup("open", 1, Integer.MAX_VALUE))) ;
+
+        for (int i = 0 ; i < DISPATCH_COUNTER ; i ++) {
+
+            jobGroupDispatcher.submit(createJob("capped")) ;
+            jobGroupDispatcher.submit(createJob("open")) ;
+        }
+
+        // The heavier capped group takes its single permit, the open group gets the rest of the shared limit
+        assertEquals(4, launchedJobs.size()) ;
+        assertEquals(1, countLaunchedJobs("capped")) ;
+
+        // Permits handed back by the open group never reach the capped one while its execution runs
+        for (int i = 0 ; i < DISPATCH_COUNTER / 2 ; i ++) {
+
+            completeLaunchedJobOf("open") ;
+
+            assertEquals(1, taskResourceManager.getMetricsSnapshot().getJobGroupInFlightTaskCounterMap().get("capped")) ;
+        }
+
+        assertEquals(1, countLaunchedJobs("capped")) ;
+
+        completeLaunchedJobOf("capped") ;
+        completeLaunchedJobOf("open") ;
+
+        assertEquals(2, countLaunchedJobs("capped")) ;
+    }
+
+    @Test
+    void groupBackFromIdleStartsAtTheVirtualTime() {
+
+        createJobGroupDispatcher(1, List.of(createJobGroup("busy", 1, Integer.MAX_VALUE), createJobGroup("idle", 1, Integer.MAX_VALUE))) ;
+
+        for (int i = 0 ; i < DISPATCH_COUNTER ; i ++) jobGroupDispatcher.submit(createJob("busy")) ;
+
+        // The busy group runs alone for a while and moves the virtual time far ahead of the pass of the idle group
+        for (int i = 1 ; i < DISPATCH_COUNTER / 2 ; i ++) completeLastLaunchedJob() ;
+
+        for (int i = 0 ; i < DISPATCH_COUNTER ; i ++) jobGroupDispatcher.submit(createJob("idle")) ;
+
+        launchedJobs.clear() ;
+        completeLaunchedJobOf("busy") ;
+        for (int i = 1 ; i < DISPATCH_COUNTER / 5 ; i ++) completeLastLaunchedJob() ;
+
+        long idleCounter = countLaunchedJobs("idle") ;
+
+        // Equal weights take turns, a stale pass would have given the idle group every permit since its return
+        assertTrue(Math.abs(idleCounter - DISPATCH_COUNTER / 10) <= 1, "Idle group dispatched: " + idleCounter) ;
+    }
+
+    private void createJobGroupDispatcher(int maxConcurrentTaskCounter, List<JobGroup> jobGroups) {
+
+        taskResourceManager = new TaskResourceManager(maxConcurrentTaskCounter) ;
+        jobGroupDispatcher = new JobGroupDispatcher(jobGroups, taskResourceManager, launchedJobs::add, Job::compareTo, wakeUpTimer) ;
+    }
+
+    private void completeLastLaunchedJob() {
+
+        completeLaunchedJobOf(launchedJobs.getLast().getJobGroup()) ;
+    }
+
+    // The permits are handed back by group, any running job of the group will do
+    private void completeLaunchedJobOf(String jobGroup) {
+
+        taskResourceManager.releaseTaskResource(jobGroup) ;
+        jobGroupDispatcher.onTaskResourceReleased() ;
+    }
+
+    private long countLaunchedJobs(String jobGroup) {
+
+        return launchedJobs.stream().filter(enhancedJob -> jobGroup.equals(enhancedJob.getJobGroup())).count() ;
+    }
+
+    private static JobGroup createJobGroup(String name, int weight, int maxConcurrentTaskCounter) {
+
+        return JobGroup.builder().name(name).weight(weight).maxConcurrentTaskCounter(maxConcurrentTaskCounter).build() ;
+    }
+
+    private static EnhancedJob createJob(int retryCounter) {
+
+        EnhancedJob enhancedJob = new EnhancedJob(() -> {}, 0, 1, 3) ;
+        enhancedJob.setRetryCounter(retryCounter) ;
+
+        return enhancedJob ;
+    }
+
+    private static EnhancedJob createJob(String jobGroup) {
+
+        EnhancedJob enhancedJob = createJob(0) ;
+        enhancedJob.setJobGroup(jobGroup) ;
+
+        return enhancedJob ;
+    }
+}
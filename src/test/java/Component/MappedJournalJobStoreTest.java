@@ -0,0 +1,350 @@
+package Component;
+
+import entity.DurableJobRecord;
+import entity.EnhancedJob;
+import entity.EnhancedTriggerConfig;
+import enumeration.MisfirePolicyEnum;
+import enumeration.RecurrenceModeEnum;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.CronExpression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <b> Memory-Mapped Journal Job Store Test Class </b>
+ *
+ * @author Aki Chou
+ * @date 2025/03/02
+ */
+class MappedJournalJobStoreTest {
+
+    private static final String TASK_NAME = "tick" ;
+    private static final String JOURNAL_FILE_NAME = "journal.dat" ;
+    // Magic and generation
+    private static final int JOURNAL_HEADER_SIZE = Integer.BYTES + Long.BYTES ;
+    private static final int FRAME_HEADER_SIZE = Integer.BYTES * 2 ;
+
+    @TempDir
+    Path directory ;
+
+    @Test
+    void replaysTheJournalAfterARestart() {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob rescheduledJob = createJob(60_000) ;
+        EnhancedJob completedJob = createJob(60_000) ;
+        EnhancedJob cancelledJob = createJob(60_000) ;
+        jobStore.recordSchedule(rescheduledJob) ;
+        jobStore.recordSchedule(completedJob) ;
+        jobStore.recordSchedule(cancelledJob) ;
+
+        rescheduledJob.setRetryCounter(2) ;
+        rescheduledJob.reschedule(120_000_000_000L) ;
+        jobStore.recordReschedule(rescheduledJob) ;
+        jobStore.recordComplete(completedJob) ;
+        jobStore.recordCancel(cancelledJob) ;
+        jobStore.close() ;
+
+        List<DurableJobRecord> durableJobRecords = reopen() ;
+
+        assertEquals(1, durableJobRecords.size()) ;
+
+        DurableJobRecord durableJobRecord = durableJobRecords.getFirst() ;
+        assertEquals(rescheduledJob.getJobId(), durableJobRecord.getJobId()) ;
+        assertEquals(rescheduledJob.getStartTime(), durableJobRecord.getNextFireTime()) ;
+        assertEquals(2, durableJobRecord.getRetryCounter()) ;
+        assertEquals(TASK_NAME, durableJobRecord.getTaskName()) ;
+    }
+
+    @Test
+    void assignsIdsAfterTheRecoveredJobs() {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob firstJob = createJob(60_000) ;
+        jobStore.recordSchedule(firstJob) ;
+        jobStore.close() ;
+
+        jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob secondJob = createJob(60_000) ;
+        jobStore.recordSchedule(secondJob) ;
+        jobStore.close() ;
+
+        assertTrue(secondJob.getJobId() > firstJob.getJobId()) ;
+        assertEquals(2, reopen().size()) ;
+    }
+
+    @Test
+    void ignoresAFinalFrameFailingItsChecksum() throws IOException {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob firstJob = createJob(60_000) ;
+        EnhancedJob secondJob = createJob(60_000) ;
+        EnhancedJob tornJob = createJob(60_000) ;
+        jobStore.recordSchedule(firstJob) ;
+        jobStore.recordSchedule(secondJob) ;
+        jobStore.recordSchedule(tornJob) ;
+        jobStore.close() ;
+
+        // A crash halfway through the last frame leaves a payload its checksum does not match
+        try (FileChannel journalChannel = FileChannel.open(directory.resolve(JOURNAL_FILE_NAME), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer journalBuffer = journalChannel.map(FileChannel.MapMode.READ_WRITE, 0, journalChannel.size()) ;
+
+            int lastFramePosition = findLastFramePosition(journalBuffer) ;
+            int lastPayloadByte = lastFramePosition + FRAME_HEADER_SIZE + journalBuffer.getInt(lastFramePosition) - 1 ;
+
+            journalBuffer.put(lastPayloadByte, (byte) ~ journalBuffer.get(lastPayloadByte)) ;
+            journalBuffer.force() ;
+        }
+
+        jobStore = new MappedJournalJobStore(directory) ;
+
+        assertEquals(Map.of(firstJob.getJobId(), TASK_NAME, secondJob.getJobId(), TASK_NAME), toTaskNameMap(jobStore.recover())) ;
+
+        // The torn frame is overwritten by the next event instead of hiding it from the replay
+        EnhancedJob nextJob = createJob(60_000) ;
+        jobStore.recordSchedule(nextJob) ;
+        jobStore.close() ;
+
+        assertTrue(toTaskNameMap(reopen()).containsKey(nextJob.getJobId())) ;
+        assertEquals(3, reopen().size()) ;
+    }
+
+    @Test
+    void recoversFromTheSnapshotAfterACompaction() {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob liveJob = createJob(60_000) ;
+        EnhancedJob completedJob = createJob(60_000) ;
+        jobStore.recordSchedule(liveJob) ;
+        jobStore.recordSchedule(completedJob) ;
+        jobStore.recordComplete(completedJob) ;
+        jobStore.compact() ;
+
+        // Events behind the snapshot land in the journal of the new generation
+        EnhancedJob laterJob = createJob(60_000) ;
+        jobStore.recordSchedule(laterJob) ;
+        jobStore.close() ;
+
+        assertEquals(Map.of(liveJob.getJobId(), TASK_NAME, laterJob.getJobId(), TASK_NAME), toTaskNameMap(reopen())) ;
+    }
+
+    @Test
+    void ignoresAJournalOlderThanTheSnapshot() throws IOException {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob liveJob = createJob(60_000) ;
+        EnhancedJob completedJob = createJob(60_000) ;
+        jobStore.recordSchedule(liveJob) ;
+        jobStore.recordSchedule(completedJob) ;
+
+        // The journal still schedules both jobs, the snapshot taken below only holds the live one
+        Path staleJournalPath = directory.resolve("stale-journal.dat") ;
+        Files.copy(directory.resolve(JOURNAL_FILE_NAME), staleJournalPath) ;
+
+        jobStore.recordComplete(completedJob) ;
+        jobStore.compact() ;
+        jobStore.close() ;
+
+        // A crash between the snapshot move and the journal reset leaves the journal of the previous generation
+        Files.move(staleJournalPath, directory.resolve(JOURNAL_FILE_NAME), StandardCopyOption.REPLACE_EXISTING) ;
+
+        assertEquals(Map.of(liveJob.getJobId(), TASK_NAME), toTaskNameMap(reopen())) ;
+    }
+
+    @Test
+    void compactsOnAFullJournal() {
+
+        // A journal just above the minimum fills up several times over with the jobs below
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory, 200_000) ;
+
+        for (int i = 0 ; i < 20_000 ; i ++) {
+
+            EnhancedJob enhancedJob = createJob(60_000) ;
+            jobStore.recordSchedule(enhancedJob) ;
+
+            if (i % 2 == 1) jobStore.recordComplete(enhancedJob) ;
+        }
+        jobStore.close() ;
+
+        assertEquals(10_000, reopen().size()) ;
+    }
+
+    @Test
+    void recoversTheScheduleOfEveryRecordField() {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob cronJob = new EnhancedJob(() -> {}, CronExpression.compile("0 30 9 * * MON-FRI", ZoneId.of("Asia/Taipei")), 3, 2) ;
+        cronJob.setTaskName(TASK_NAME) ;
+        cronJob.setJobKey("report") ;
+        cronJob.setMisfirePolicy(MisfirePolicyEnum.SKIP_TO_NEXT) ;
+
+        EnhancedJob fixedRateJob = createJob(5_000) ;
+        fixedRateJob.setRecurrenceMode(RecurrenceModeEnum.FIXED_RATE) ;
+        fixedRateJob.setMisfirePolicy(MisfirePolicyEnum.FIRE_ALL) ;
+        fixedRateJob.setJobGroup("billing") ;
+        fixedRateJob.setTimeout(1_500) ;
+        fixedRateJob.setDeadline(4_000) ;
+
+        EnhancedJob oneShotJob = createJob(5_000) ;
+        oneShotJob.setRecurrenceMode(RecurrenceModeEnum.ONE_SHOT) ;
+
+        jobStore.recordSchedule(cronJob) ;
+        jobStore.recordSchedule(fixedRateJob) ;
+        jobStore.recordSchedule(oneShotJob) ;
+        // Once through a snapshot as well, which writes the records anew
+        jobStore.compact() ;
+        jobStore.close() ;
+
+        Map<Long, DurableJobRecord> durableJobRecordMap = reopen().stream()
+                .collect(Collectors.toMap(DurableJobRecord::getJobId, Function.identity())) ;
+
+        DurableJobRecord cronRecord = durableJobRecordMap.get(cronJob.getJobId()) ;
+        assertEquals("0 30 9 * * MON-FRI", cronRecord.getCronExpression()) ;
+        assertEquals("Asia/Taipei", cronRecord.getTimeZone()) ;
+        assertEquals(cronJob.getStartTime(), cronRecord.getNextFireTime()) ;
+        assertEquals("report", cronRecord.getJobKey()) ;
+        assertEquals(3, cronRecord.getPriorityLevel()) ;
+        assertEquals(2, cronRecord.getMaxRetryCounter()) ;
+        assertEquals(MisfirePolicyEnum.SKIP_TO_NEXT, cronRecord.getMisfirePolicy()) ;
+
+        DurableJobRecord fixedRateRecord = durableJobRecordMap.get(fixedRateJob.getJobId()) ;
+        assertNull(fixedRateRecord.getCronExpression()) ;
+        assertEquals(5_000, fixedRateRecord.getDelay()) ;
+        assertEquals(RecurrenceModeEnum.FIXED_RATE, fixedRateRecord.getRecurrenceMode()) ;
+        assertEquals(MisfirePolicyEnum.FIRE_ALL, fixedRateRecord.getMisfirePolicy()) ;
+        assertEquals("billing", fixedRateRecord.getJobGroup()) ;
+        assertEquals(1_500, fixedRateRecord.getTimeout()) ;
+        assertEquals(4_000, fixedRateRecord.getDeadline()) ;
+
+        assertEquals(RecurrenceModeEnum.ONE_SHOT, durableJobRecordMap.get(oneShotJob.getJobId()).getRecurrenceMode()) ;
+    }
+
+    @Test
+    void triggerRecoversTheCronScheduleOfAStoredJob() {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+
+        EnhancedJob cronJob = new EnhancedJob(() -> {}, CronExpression.compile("0 0 12 1 * ?", ZoneId.of("Europe/Paris")), 1, 0) ;
+        cronJob.setTaskName(TASK_NAME) ;
+        cronJob.setRecurrenceMode(RecurrenceModeEnum.FIXED_RATE) ;
+        cronJob.setTimeout(2_000) ;
+        cronJob.setDeadline(3_000) ;
+        jobStore.recordSchedule(cronJob) ;
+        jobStore.close() ;
+
+        TaskRegistry taskRegistry = new TaskRegistry() ;
+        taskRegistry.register(TASK_NAME, () -> () -> {}) ;
+
+        EnhancedTrigger enhancedTrigger = new EnhancedTrigger(EnhancedTriggerConfig.builder()
+                .jobStore(new MappedJournalJobStore(directory))
+                .taskRegistry(taskRegistry)
+                .build()) ;
+        try {
+
+            assertEquals(1, enhancedTrigger.getRecoveredJobHandles().size()) ;
+
+            EnhancedJob recoveredJob = (EnhancedJob) enhancedTrigger.getRecoveredJobHandles().getFirst().getJob() ;
+            CronExpression cronExpression = assertInstanceOf(CronExpression.class, recoveredJob.getJobSchedule()) ;
+
+            assertEquals("0 0 12 1 * ?", cronExpression.getExpression()) ;
+            assertEquals(ZoneId.of("Europe/Paris"), cronExpression.getZoneId()) ;
+            assertEquals(cronJob.getStartTime(), recoveredJob.getStartTime()) ;
+            assertEquals(cronJob.getJobId(), recoveredJob.getJobId()) ;
+            assertEquals(RecurrenceModeEnum.FIXED_RATE, recoveredJob.getRecurrenceMode()) ;
+            assertEquals(2_000, recoveredJob.getTimeout()) ;
+            assertEquals(3_000, recoveredJob.getDeadline()) ;
+        } finally {
+            enhancedTrigger.shutdown() ;
+        }
+    }
+
+    @Test
+    void triggerSchedulesStoredJobsOfATaskRegisteredLater() {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+        jobStore.recordSchedule(createJob(60_000)) ;
+        jobStore.recordSchedule(createJob(60_000)) ;
+        jobStore.close() ;
+
+        TaskRegistry taskRegistry = new TaskRegistry() ;
+
+        EnhancedTrigger enhancedTrigger = new EnhancedTrigger(EnhancedTriggerConfig.builder()
+                .jobStore(new MappedJournalJobStore(directory))
+                .taskRegistry(taskRegistry)
+                .build()) ;
+        try {
+
+            assertEquals(0, enhancedTrigger.getRecoveredJobHandles().size()) ;
+
+            taskRegistry.register(TASK_NAME, () -> () -> {}) ;
+
+            assertEquals(2, enhancedTrigger.getRecoveredJobHandles().size()) ;
+            assertEquals(2, enhancedTrigger.getQueuedJobCounter()) ;
+        } finally {
+            enhancedTrigger.shutdown() ;
+        }
+    }
+
+    private List<DurableJobRecord> reopen() {
+
+        MappedJournalJobStore jobStore = new MappedJournalJobStore(directory) ;
+        try {
+
+            return jobStore.recover() ;
+        } finally {
+            jobStore.close() ;
+        }
+    }
+
+    private static int findLastFramePosition(ByteBuffer journalBuffer) {
+
+        int position = JOURNAL_HEADER_SIZE ;
+        int lastFramePosition = -1 ;
+        while (journalBuffer.getInt(position) > 0) {
+
+            lastFramePosition = position ;
+            position += FRAME_HEADER_SIZE + journalBuffer.getInt(position) ;
+        }
+
+        return lastFramePosition ;
+    }
+
+    private static Map<Long, String> toTaskNameMap(List<DurableJobRecord> durableJobRecords) {
+
+        return durableJobRecords.stream().collect(Collectors.toMap(DurableJobRecord::getJobId, DurableJobRecord::getTaskName)) ;
+    }
+
+    private static EnhancedJob createJob(long delay) {
+
+        EnhancedJob enhancedJob = new EnhancedJob(() -> {}, delay, 1, 3) ;
+        enhancedJob.setTaskName(TASK_NAME) ;
+
+        return enhancedJob ;
+    }
+}
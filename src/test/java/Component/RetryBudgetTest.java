@@ -0,0 +1,45 @@
+package Component;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <b> Retry Budget Test Class </b>
+ *
+ * @author Aki Chou
+ * @date 2025/03/02
+ */
+class RetryBudgetTest {
+
+    private static final int MIN_RETRIES_PER_SECOND = 5 ;
+
+    @Test
+    void idleBudgetAllowsOnlyTheReserveOfOneSecond() {
+
+        RetryBudget retryBudget = new RetryBudget(0.1, MIN_RETRIES_PER_SECOND) ;
+
+        int allowedCounter = 0 ;
+        while (allowedCounter < 100 && retryBudget.tryWithdraw()) allowedCounter ++ ;
+
+        // A second boundary crossed during the loop opens the reserve of the next second
+        assertTrue(allowedCounter >= MIN_RETRIES_PER_SECOND && allowedCounter <= 2 * MIN_RETRIES_PER_SECOND, "Retries allowed: " + allowedCounter) ;
+    }
+
+    @Test
+    void depositsPayForRetriesBeyondTheReserve() {
+
+        RetryBudget retryBudget = new RetryBudget(0.5, 0) ;
+
+        assertFalse(retryBudget.tryWithdraw()) ;
+
+        for (int i = 0 ; i < 10 ; i ++) retryBudget.deposit() ;
+
+        int allowedCounter = 0 ;
+        while (allowedCounter < 100 && retryBudget.tryWithdraw()) allowedCounter ++ ;
+
+        assertEquals(5, allowedCounter) ;
+    }
+}
@@ -0,0 +1,207 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * <b> Cron Expression Test Class </b>
+ *
+ * <p> Every fire time is checked against a brute force reference, which walks the local date-times one by one
+ * and resolves the matching ones with {@link ZonedDateTime#of}. </p>
+ *
+ * @author Aki Chou
+ * @date 2025/03/02
+ */
+class CronExpressionTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York") ;
+    private static final ZoneId LORD_HOWE = ZoneId.of("Australia/Lord_Howe") ;
+    private static final ZoneId UTC = ZoneOffset.UTC ;
+    // Far beyond the eight years between two 29ths of February around 2100
+    private static final long REFERENCE_MINUTE_LIMIT = 10L * 366 * 24 * 60 ;
+
+    @Test
+    void shiftsATimeInTheNewYorkGapForward() {
+
+        CronExpression cronExpression = CronExpression.compile("30 2 * * *", NEW_YORK) ;
+
+        long fireTime = cronExpression.getNextFireTime(toMillis(2025, 3, 8, 12, 0, NEW_YORK)) ;
+
+        assertEquals(toMillis(2025, 3, 9, 3, 30, NEW_YORK), fireTime) ;
+
+        assertMatchesReference(cronExpression, toMillis(2025, 3, 7, 0, 0, NEW_YORK), 5, time -> time.getHour() == 2 && time.getMinute() == 30) ;
+        assertMatchesReference(CronExpression.compile("*/15 * * * *", NEW_YORK), toMillis(2025, 3, 9, 0, 50, NEW_YORK), 20, time -> time.getMinute() % 15 == 0) ;
+    }
+
+    @Test
+    void firesATimeInTheNewYorkOverlapOnce() {
+
+        CronExpression cronExpression = CronExpression.compile("30 1 * * *", NEW_YORK) ;
+
+        long firstFireTime = cronExpression.getNextFireTime(toMillis(2025, 11, 1, 12, 0, NEW_YORK)) ;
+        long secondFireTime = cronExpression.getNextFireTime(firstFireTime) ;
+
+        // The earlier offset wins, the repeated half past one of the standard time is skipped
+        assertEquals(ZonedDateTime.of(2025, 11, 2, 1, 30, 0, 0, NEW_YORK).withEarlierOffsetAtOverlap().toInstant().toEpochMilli(), firstFireTime) ;
+        assertEquals(toMillis(2025, 11, 3, 1, 30, NEW_YORK), secondFireTime) ;
+
+        assertMatchesReference(cronExpression, toMillis(2025, 10, 31, 0, 0, NEW_YORK), 5, time -> time.getHour() == 1 && time.getMinute() == 30) ;
+        assertMatchesReference(CronExpression.compile("*/20 * * * *", NEW_YORK), toMillis(2025, 11, 2, 0, 30, NEW_YORK), 20, time -> time.getMinute() % 20 == 0) ;
+    }
+
+    @Test
+    void followsTheHalfHourShiftsOfLordHowe() {
+
+        // The clocks go from 2:00 to 2:30 in October and from 2:00 back to 1:30 in April
+        CronExpression cronExpression = CronExpression.compile("15 2 * * *", LORD_HOWE) ;
+
+        assertEquals(toMillis(2025, 10, 5, 2, 45, LORD_HOWE), cronExpression.getNextFireTime(toMillis(2025, 10, 4, 12, 0, LORD_HOWE))) ;
+
+        assertMatchesReference(cronExpression, toMillis(2025, 10, 3, 0, 0, LORD_HOWE), 5, time -> time.getHour() == 2 && time.getMinute() == 15) ;
+
+        CronExpression everyTenMinutes = CronExpression.compile("*/10 * * * *", LORD_HOWE) ;
+        Predicate<LocalDateTime> isEveryTenMinutes = time -> time.getMinute() % 10 == 0 ;
+
+        assertMatchesReference(everyTenMinutes, toMillis(2025, 4, 6, 1, 0, LORD_HOWE), 20, isEveryTenMinutes) ;
+        assertMatchesReference(everyTenMinutes, toMillis(2025, 10, 5, 1, 30, LORD_HOWE), 20, isEveryTenMinutes) ;
+    }
+
+    @Test
+    void findsTheNextTwentyNinthOfFebruary() {
+
+        CronExpression cronExpression = CronExpression.compile("0 12 29 2 *", UTC) ;
+        Predicate<LocalDateTime> isLeapDayNoon = time -> time.getMonthValue() == 2 && time.getDayOfMonth() == 29 && time.getHour() == 12 && time.getMinute() == 0 ;
+
+        assertEquals(toMillis(2028, 2, 29, 12, 0, UTC), cronExpression.getNextFireTime(toMillis(2025, 1, 1, 0, 0, UTC))) ;
+
+        // 2100 is not a leap year
+        assertEquals(toMillis(2104, 2, 29, 12, 0, UTC), cronExpression.getNextFireTime(toMillis(2096, 3, 1, 0, 0, UTC))) ;
+
+        assertMatchesReference(cronExpression, toMillis(2024, 2, 29, 12, 0, UTC), 3, isLeapDayNoon) ;
+        assertMatchesReference(cronExpression, toMillis(2096, 2, 29, 12, 0, UTC), 1, isLeapDayNoon) ;
+    }
+
+    @Test
+    void matchesEitherDayFieldOnceBothAreRestricted() {
+
+        // The 13th of every month and every Friday
+        assertMatchesReference(CronExpression.compile("0 0 13 * FRI", UTC), toMillis(2025, 1, 1, 0, 0, UTC), 30,
+                time -> time.getHour() == 0 && time.getMinute() == 0 && (time.getDayOfMonth() == 13 || time.getDayOfWeek() == DayOfWeek.FRIDAY)) ;
+
+        // An unrestricted day of week leaves the day of month alone
+        assertMatchesReference(CronExpression.compile("0 0 13 * ?", UTC), toMillis(2025, 1, 1, 0, 0, UTC), 12,
+                time -> time.getHour() == 0 && time.getMinute() == 0 && time.getDayOfMonth() == 13) ;
+
+        assertMatchesReference(CronExpression.compile("0 0 * * 5", UTC), toMillis(2025, 1, 1, 0, 0, UTC), 12,
+                time -> time.getHour() == 0 && time.getMinute() == 0 && time.getDayOfWeek() == DayOfWeek.FRIDAY) ;
+    }
+
+    @Test
+    void acceptsSevenAsSunday() {
+
+        Predicate<LocalDateTime> isSundayMorning = time -> time.getHour() == 9 && time.getMinute() == 0 && time.getDayOfWeek() == DayOfWeek.SUNDAY ;
+
+        for (String expression : new String[] {"0 9 * * 7", "0 9 * * 0", "0 9 * * SUN"}) {
+
+            assertMatchesReference(CronExpression.compile(expression, UTC), toMillis(2025, 1, 1, 0, 0, UTC), 10, isSundayMorning) ;
+        }
+
+        assertMatchesReference(CronExpression.compile("0 9 * * 5-7", UTC), toMillis(2025, 1, 1, 0, 0, UTC), 15,
+                time -> time.getHour() == 9 && time.getMinute() == 0 && time.getDayOfWeek().getValue() >= DayOfWeek.FRIDAY.getValue()) ;
+    }
+
+    @Test
+    void firesOnTheSecondsOfASixFieldExpression() {
+
+        CronExpression cronExpression = CronExpression.compile("*/20 0 12 * * *", UTC) ;
+
+        long fireTime = toMillis(2025, 1, 1, 11, 0, UTC) ;
+        for (int second : new int[] {0, 20, 40}) {
+
+            fireTime = cronExpression.getNextFireTime(fireTime) ;
+
+            assertEquals(toMillis(2025, 1, 1, 12, 0, UTC) + second * 1000L, fireTime) ;
+        }
+
+        assertEquals(toMillis(2025, 1, 2, 12, 0, UTC), cronExpression.getNextFireTime(fireTime)) ;
+    }
+
+    @Test
+    void rejectsInvalidExpressions() {
+
+        String[] invalidExpressions = {
+                "",
+                "* * * *",
+                "* * * * * * *",
+                "60 * * * *",
+                "* 24 * * *",
+                "* * 0 * *",
+                "* * 32 * *",
+                "* * * 13 *",
+                "* * * * 8",
+                "*/0 * * * *",
+                "30-10 * * * *",
+                "FOO * * * *",
+                "* * * JANUARY *",
+                // Valid fields that never meet
+                "0 0 30 2 *",
+                "0 0 31 4,6,9,11 ?"
+        } ;
+
+        for (String expression : invalidExpressions) {
+
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.compile(expression, UTC), expression) ;
+        }
+    }
+
+    private static void assertMatchesReference(CronExpression cronExpression, long afterTime, int fireCounter, Predicate<LocalDateTime> matcher) {
+
+        long fireTime = afterTime ;
+
+        for (int i = 0 ; i < fireCounter ; i ++) {
+
+            long expectedFireTime = findReferenceFireTime(cronExpression.getZoneId(), fireTime, matcher) ;
+            fireTime = cronExpression.getNextFireTime(fireTime) ;
+
+            assertEquals(Instant.ofEpochMilli(expectedFireTime), Instant.ofEpochMilli(fireTime), cronExpression + " after fire " + i) ;
+        }
+    }
+
+    /**
+     * <p> To find the first whole minute after the given time whose local date-time matches, tried one local
+     * minute after the other </p>
+     */
+    private static long findReferenceFireTime(ZoneId zoneId, long afterTime, Predicate<LocalDateTime> matcher) {
+
+        Instant startInstant = Instant.ofEpochSecond(Math.floorDiv(afterTime, 1000) + 1) ;
+        LocalDateTime localTime = LocalDateTime.ofInstant(startInstant, zoneId).truncatedTo(ChronoUnit.MINUTES) ;
+
+        for (long i = 0 ; i < REFERENCE_MINUTE_LIMIT ; i ++, localTime = localTime.plusMinutes(1)) {
+
+            if (!matcher.test(localTime)) continue ;
+
+            Instant fireInstant = ZonedDateTime.of(localTime, zoneId).toInstant() ;
+
+            // The first occurrence of a time repeated by an overlap may lie before the start
+            if (!fireInstant.isBefore(startInstant)) return fireInstant.toEpochMilli() ;
+        }
+
+        throw new AssertionError("No reference fire time after " + Instant.ofEpochMilli(afterTime)) ;
+    }
+
+    private static long toMillis(int year, int month, int day, int hour, int minute, ZoneId zoneId) {
+
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, zoneId).toInstant().toEpochMilli() ;
+    }
+}